@@ -0,0 +1,84 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.index.AlertIndex;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.service.AlertsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of the AlertsService lookups answered by JPA against the in-memory AlertIndex.
+ * Each value of {@code indexEnabled} starts its own application context; the result cache is off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AlertIndexBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int population;
+
+    @Param({"false", "true"})
+    public boolean indexEnabled;
+
+    private ConfigurableApplicationContext context;
+    private AlertsService alertsService;
+
+    private int stationNumber;
+    private List<Integer> floodStations;
+    private String address;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(population,
+                "alerts.index.enabled=" + indexEnabled,
+                "spring.cache.type=none");
+        if (indexEnabled) {
+            // Built at startup on an empty schema; rebuild now that the population is seeded
+            context.getBean(AlertIndex.class).build();
+        }
+        alertsService = context.getBean(AlertsService.class);
+
+        SyntheticPopulation syntheticPopulation = new SyntheticPopulation(population);
+        int household = syntheticPopulation.households() / 2;
+        stationNumber = SyntheticPopulation.stationNumber(household);
+        floodStations = List.of(Math.max(1, stationNumber - 1), stationNumber,
+                Math.min(syntheticPopulation.stations(), stationNumber + 1));
+        address = SyntheticPopulation.address(household);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> peopleByFireStation() {
+        return alertsService.getPeopleByFireStation(stationNumber);
+    }
+
+    @Benchmark
+    public Map<String, List<Person>> floodDetailsByStations() {
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        alertsService.streamFloodHouseholdsByStations(floodStations, households::put);
+        return households;
+    }
+
+    @Benchmark
+    public Map<String, Object> fireDetailsByAddress() {
+        return alertsService.getFireDetailsByAddress(address);
+    }
+
+    @Benchmark
+    public Map<String, Object> childrenByAddress() {
+        return alertsService.getChildrenByAddress(address);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.service.AlertsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every AlertsService method on the JPA path, and the Jackson serialization of their results,
+ * against synthetic populations of increasing size. The result cache and the in-memory index are off.
+ * <p>
+ * All sizes take a while to seed; pick one with e.g. {@code -p population=10000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AlertsServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int population;
+
+    private ConfigurableApplicationContext context;
+    private AlertsService alertsService;
+    private ObjectMapper objectMapper;
+
+    private int stationNumber;
+    private List<Integer> floodStations;
+    private String address;
+    private String city;
+    private String firstName;
+    private String lastName;
+
+    private List<Person> stationPeople;
+    private Map<String, List<Person>> floodHouseholds;
+    private Map<String, Object> fireDetails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(population,
+                "spring.cache.type=none",
+                "alerts.index.enabled=false");
+        alertsService = context.getBean(AlertsService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        SyntheticPopulation syntheticPopulation = new SyntheticPopulation(population);
+        int household = syntheticPopulation.households() / 2;
+        int person = household * SyntheticPopulation.PERSONS_PER_HOUSEHOLD;
+        stationNumber = SyntheticPopulation.stationNumber(household);
+        floodStations = List.of(Math.max(1, stationNumber - 1), stationNumber,
+                Math.min(syntheticPopulation.stations(), stationNumber + 1));
+        address = SyntheticPopulation.address(household);
+        city = SyntheticPopulation.city(household);
+        firstName = SyntheticPopulation.firstName(person);
+        lastName = SyntheticPopulation.lastName(person);
+
+        // Results for the serialization benchmarks, loaded once with their collections initialized
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.executeWithoutResult(status -> {
+            stationPeople = alertsService.getPeopleByFireStation(stationNumber);
+            floodHouseholds = new LinkedHashMap<>();
+            alertsService.streamFloodHouseholdsByStations(floodStations, floodHouseholds::put);
+            fireDetails = alertsService.getFireDetailsByAddress(address);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> getPeopleByFireStation() {
+        return alertsService.getPeopleByFireStation(stationNumber);
+    }
+
+    @Benchmark
+    public StationHeadcount getHeadcountByFireStation() {
+        return alertsService.getHeadcountByFireStation(stationNumber);
+    }
+
+    @Benchmark
+    public Map<String, Object> getChildrenByAddress() {
+        return alertsService.getChildrenByAddress(address);
+    }
+
+    @Benchmark
+    public List<String> getPhoneNumbersByFireStation() {
+        return alertsService.getPhoneNumbersByFireStation(stationNumber);
+    }
+
+    @Benchmark
+    public Map<String, Object> getFireDetailsByAddress() {
+        return alertsService.getFireDetailsByAddress(address);
+    }
+
+    @Benchmark
+    public Map<String, List<Person>> streamFloodHouseholdsByStations() {
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        alertsService.streamFloodHouseholdsByStations(floodStations, households::put);
+        return households;
+    }
+
+    @Benchmark
+    public List<Person> getPersonInfo() {
+        return alertsService.getPersonInfo(firstName, lastName);
+    }
+
+    @Benchmark
+    public List<String> getCommunityEmails() {
+        return alertsService.getCommunityEmails(city);
+    }
+
+    @Benchmark
+    public byte[] serializePeopleByFireStation() throws Exception {
+        return objectMapper.writeValueAsBytes(stationPeople);
+    }
+
+    @Benchmark
+    public byte[] serializeFloodHouseholds() throws Exception {
+        return objectMapper.writeValueAsBytes(floodHouseholds);
+    }
+
+    @Benchmark
+    public byte[] serializeFireDetails() throws Exception {
+        return objectMapper.writeValueAsBytes(fireDetails);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.FinalProject1Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application, by default without a web server, skips the data.json load and seeds a
+ * {@link SyntheticPopulation} instead.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param population number of persons to seed
+     * @param properties additional {@code key=value} properties for this run
+     * @return the started context, to be closed by the caller
+     */
+    public static ConfigurableApplicationContext start(int population, String... properties) {
+        return start(WebApplicationType.NONE, population, properties);
+    }
+
+    /**
+     * @param webApplicationType {@code SERVLET} to serve HTTP, e.g. together with {@code server.port=0}
+     * @param population         number of persons to seed
+     * @param properties         additional {@code key=value} properties for this run
+     * @return the started context, to be closed by the caller
+     */
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int population,
+                                                       String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "alerts.loader.enabled=false",
+                "logging.level.root=WARN"));
+        all.addAll(List.of(properties));
+        // As command line arguments: default properties would lose to application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FinalProject1Application.class)
+                .web(webApplicationType)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+        new SyntheticPopulation(population).seed(context.getBean(JdbcTemplate.class));
+        return context;
+    }
+}
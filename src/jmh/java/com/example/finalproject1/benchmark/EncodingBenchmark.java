@@ -0,0 +1,93 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.config.EncodingConfig;
+import com.example.finalproject1.model.Person;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the representations of a /flood/stations response: JSON, Smile and CBOR, each as is and
+ * gzip-compressed the way Tomcat compresses responses. The time is the serialization CPU per response,
+ * compression included; the bytes on the wire are printed once per combination when the trial ends.
+ * <p>
+ * No database is involved: the response is built from the synthetic population in memory.
+ * {@code -Djmh.args="EncodingBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String encoding;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    // Stations of the request, 250 households of 4 residents each
+    @Param({"4"})
+    public int stations;
+
+    private ObjectMapper mapper;
+    private Map<String, Object> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        EncodingConfig encodingConfig = new EncodingConfig();
+        mapper = switch (encoding) {
+            case "smile" -> encodingConfig.smileHttpMessageConverter(json).getObjectMapper();
+            case "cbor" -> encodingConfig.cborHttpMessageConverter(json).getObjectMapper();
+            default -> json;
+        };
+
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        int householdCount = stations * SyntheticPopulation.HOUSEHOLDS_PER_STATION;
+        for (int household = 0; household < householdCount; household++) {
+            List<Person> residents = new ArrayList<>();
+            for (int i = 0; i < SyntheticPopulation.PERSONS_PER_HOUSEHOLD; i++) {
+                int person = household * SyntheticPopulation.PERSONS_PER_HOUSEHOLD + i;
+                Person resident = new Person(SyntheticPopulation.firstName(person),
+                        SyntheticPopulation.lastName(person), SyntheticPopulation.address(household),
+                        SyntheticPopulation.city(household), String.format("555-%07d", person),
+                        SyntheticPopulation.firstName(person) + "@example.com", person * 7 % 90,
+                        List.of("aspirin:100mg"), List.of("peanut"));
+                resident.setId(person + 1L);
+                residents.add(resident);
+            }
+            households.put(SyntheticPopulation.address(household), residents);
+        }
+        response = Map.of("households", households);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s%s: %d bytes on the wire%n", encoding, gzip ? " + gzip" : "", encode().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        if (gzip) {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(bytes)) {
+                mapper.writeValue(compressed, response);
+            }
+        } else {
+            mapper.writeValue(bytes, response);
+        }
+        return bytes.toByteArray();
+    }
+}
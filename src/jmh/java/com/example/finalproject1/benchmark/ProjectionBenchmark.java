@@ -0,0 +1,121 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares loading Person entities and mapping them in Java with the projection queries of
+ * /phoneAlert, /communityEmail and /childAlert, response serialization included. Each call runs in
+ * its own read-only transaction, the way a request does.
+ * <p>
+ * Meant to be run with the GC profiler to compare allocations per call ({@code gc.alloc.rate.norm}):
+ * {@code -Djmh.args="ProjectionBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProjectionBenchmark {
+
+    @Param({"100000"})
+    public int population;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+    private FireStationRepository fireStationRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate transactionTemplate;
+
+    private int stationNumber;
+    private String address;
+    private String city;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(population,
+                "spring.cache.type=none",
+                "alerts.index.enabled=false");
+        personRepository = context.getBean(PersonRepository.class);
+        fireStationRepository = context.getBean(FireStationRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        SyntheticPopulation syntheticPopulation = new SyntheticPopulation(population);
+        int household = syntheticPopulation.households() / 2;
+        stationNumber = SyntheticPopulation.stationNumber(household);
+        address = SyntheticPopulation.address(household);
+        city = SyntheticPopulation.city(household);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] phonesFromEntities() {
+        return inTransaction(() -> {
+            List<String> addresses = fireStationRepository.findByStationNumber(stationNumber).stream()
+                    .map(FireStation::getAddress)
+                    .toList();
+            return personRepository.findByAddressIn(addresses).stream().map(Person::getPhone).toList();
+        });
+    }
+
+    @Benchmark
+    public byte[] phonesFromProjection() {
+        return inTransaction(() -> personRepository.findPhonesByStationNumber(stationNumber));
+    }
+
+    @Benchmark
+    public byte[] emailsFromEntities() {
+        return inTransaction(() -> personRepository.findByCity(city).stream().map(Person::getEmail).toList());
+    }
+
+    @Benchmark
+    public byte[] emailsFromProjection() {
+        return inTransaction(() -> personRepository.findEmailsByCity(city));
+    }
+
+    // Serializing the entities loads their medications and allergies, as /childAlert used to
+    @Benchmark
+    public byte[] residentsFromEntities() {
+        return inTransaction(() -> personRepository.findByAddress(address));
+    }
+
+    @Benchmark
+    public byte[] residentsFromProjection() {
+        return inTransaction(() -> personRepository.findResidentSummariesByAddress(address));
+    }
+
+    @Benchmark
+    public byte[] residentSummariesFromEntities() {
+        return inTransaction(() -> personRepository.findByAddress(address).stream().map(ResidentSummary::of).toList());
+    }
+
+    private byte[] inTransaction(Supplier<Object> query) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(query.get());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
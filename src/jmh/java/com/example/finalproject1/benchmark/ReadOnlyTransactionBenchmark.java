@@ -0,0 +1,98 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.PersonRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a read-only transaction saves on a /flood/stations request over a large station set:
+ * the persons of every station are loaded with their collections, grouped by household and serialized,
+ * once in a read-write transaction (entity snapshots, dirty checking and flush at commit) and once in a
+ * read-only one, as AlertsService now runs.
+ * <p>
+ * CPU is the average time per request; heap is the allocation per request, reported by the GC profiler
+ * ({@code gc.alloc.rate.norm}): {@code -Djmh.args="ReadOnlyTransactionBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReadOnlyTransactionBenchmark {
+
+    @Param({"1000000"})
+    public int population;
+
+    // Stations of the flood request, 1000 residents each
+    @Param({"20"})
+    public int stations;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private List<Integer> stationNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(population,
+                "spring.cache.type=none",
+                "alerts.index.enabled=false");
+        personRepository = context.getBean(PersonRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        int first = new SyntheticPopulation(population).stations() / 2;
+        stationNumbers = new ArrayList<>();
+        for (int i = 0; i < stations; i++) {
+            stationNumbers.add(first + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] floodReadWrite() {
+        return readWrite.execute(status -> flood());
+    }
+
+    @Benchmark
+    public byte[] floodReadOnly() {
+        return readOnly.execute(status -> flood());
+    }
+
+    private byte[] flood() {
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        for (Person person : personRepository.findByStationNumberIn(stationNumbers)) {
+            Hibernate.initialize(person.getMedications());
+            Hibernate.initialize(person.getAllergies());
+            households.computeIfAbsent(person.getAddress(), address -> new ArrayList<>()).add(person);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(households);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
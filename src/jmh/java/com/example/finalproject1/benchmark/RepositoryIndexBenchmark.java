@@ -0,0 +1,103 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every repository finder on a 1M person population, with the {@code @Table} indexes in place
+ * and with them dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryIndexBenchmark {
+
+    private static final List<String> INDEXES = List.of("idx_person_address", "idx_person_city",
+            "idx_person_name", "idx_person_household", "idx_fire_station_number", "idx_fire_station_address",
+            "idx_fire_station_household");
+
+    @Param({"1000000"})
+    public int population;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+    private FireStationRepository fireStationRepository;
+
+    private String address;
+    private String city;
+    private String firstName;
+    private String lastName;
+    private int stationNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(population);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        SyntheticPopulation syntheticPopulation = new SyntheticPopulation(population);
+        if (!indexed) {
+            INDEXES.forEach(index -> jdbcTemplate.execute("DROP INDEX IF EXISTS " + index));
+        }
+        jdbcTemplate.execute("ANALYZE");
+
+        personRepository = context.getBean(PersonRepository.class);
+        fireStationRepository = context.getBean(FireStationRepository.class);
+
+        // Probe the middle of the data set so neither end of a scan is favoured.
+        int household = syntheticPopulation.households() / 2;
+        int person = household * SyntheticPopulation.PERSONS_PER_HOUSEHOLD;
+        address = SyntheticPopulation.address(household);
+        city = SyntheticPopulation.city(household);
+        firstName = SyntheticPopulation.firstName(person);
+        lastName = SyntheticPopulation.lastName(person);
+        stationNumber = SyntheticPopulation.stationNumber(household);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> findByAddress() {
+        return personRepository.findByAddress(address);
+    }
+
+    @Benchmark
+    public List<Person> findByCity() {
+        return personRepository.findByCity(city);
+    }
+
+    @Benchmark
+    public List<Person> findByFirstNameAndLastName() {
+        return personRepository.findByFirstNameAndLastName(firstName, lastName);
+    }
+
+    @Benchmark
+    public List<FireStation> findByStationNumber() {
+        return fireStationRepository.findByStationNumber(stationNumber);
+    }
+
+    @Benchmark
+    public List<FireStation> findByFireStationAddress() {
+        return fireStationRepository.findByAddress(address);
+    }
+
+    @Benchmark
+    public List<Person> findPersonsByStationNumber() {
+        return personRepository.findByStationNumber(stationNumber);
+    }
+}
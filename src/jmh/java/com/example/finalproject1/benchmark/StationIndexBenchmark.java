@@ -0,0 +1,88 @@
+package com.example.finalproject1.benchmark;
+
+import com.example.finalproject1.index.StationIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving the stations of a /flood/stations request to their addresses through the boxed
+ * {@code Map<Integer, List<String>>} the AlertIndex used before with the primitive {@link StationIndex}.
+ * Several threads resolve concurrently, as under request load.
+ * <p>
+ * Meant to be run with the GC profiler to compare allocations per lookup ({@code gc.alloc.rate.norm}):
+ * {@code -Djmh.args="StationIndexBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class StationIndexBenchmark {
+
+    @Param({"1000000"})
+    public int population;
+
+    private Map<Integer, List<String>> boxed;
+    private StationIndex primitive;
+    private String[] addresses;
+
+    private List<Integer> boxedStations;
+    private int[] stations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticPopulation syntheticPopulation = new SyntheticPopulation(population);
+        boxed = new HashMap<>();
+        StationIndex.Builder builder = new StationIndex.Builder();
+        addresses = new String[syntheticPopulation.households()];
+        for (int household = 0; household < addresses.length; household++) {
+            int stationNumber = SyntheticPopulation.stationNumber(household);
+            addresses[household] = SyntheticPopulation.address(household);
+            boxed.computeIfAbsent(stationNumber, number -> new ArrayList<>()).add(addresses[household]);
+            builder.add(stationNumber, household);
+        }
+        boxed.replaceAll((number, list) -> List.copyOf(list));
+        primitive = builder.build();
+
+        // Station numbers beyond the Integer cache, as in a large deployment
+        int last = syntheticPopulation.stations();
+        stations = new int[]{last - 2, last - 1, last};
+        boxedStations = List.of(last - 2, last - 1, last);
+    }
+
+    @Benchmark
+    public void boxedLookup(Blackhole blackhole) {
+        for (Integer stationNumber : boxedStations) {
+            for (String address : boxed.getOrDefault(stationNumber, List.of())) {
+                blackhole.consume(address);
+            }
+        }
+    }
+
+    // Station numbers arrive boxed from the request parameters, as in AlertIndex
+    @Benchmark
+    public void primitiveLookup(Blackhole blackhole) {
+        for (Integer stationNumber : boxedStations) {
+            for (int addressId : primitive.addressIds(stationNumber)) {
+                blackhole.consume(addresses[addressId]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void primitiveLookupFromInts(Blackhole blackhole) {
+        for (int stationNumber : stations) {
+            for (int addressId : primitive.addressIds(stationNumber)) {
+                blackhole.consume(addresses[addressId]);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.finalproject1.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic synthetic population written straight into the schema with JDBC batches,
+ * so benchmarks can run on data sets far larger than data.json.
+ * <p>
+ * Every household has {@value #PERSONS_PER_HOUSEHOLD} residents, every station covers
+ * {@value #HOUSEHOLDS_PER_STATION} households and every city holds as many households as a station.
+ */
+public final class SyntheticPopulation {
+
+    public static final int PERSONS_PER_HOUSEHOLD = 4;
+    public static final int HOUSEHOLDS_PER_STATION = 250;
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final int persons;
+
+    public SyntheticPopulation(int persons) {
+        this.persons = persons;
+    }
+
+    public int households() {
+        return (persons + PERSONS_PER_HOUSEHOLD - 1) / PERSONS_PER_HOUSEHOLD;
+    }
+
+    public int stations() {
+        return Math.max(1, (households() + HOUSEHOLDS_PER_STATION - 1) / HOUSEHOLDS_PER_STATION);
+    }
+
+    public static String address(int household) {
+        return household + " Synthetic Street";
+    }
+
+    public static String city(int household) {
+        return "City " + household / HOUSEHOLDS_PER_STATION;
+    }
+
+    public static int stationNumber(int household) {
+        return household / HOUSEHOLDS_PER_STATION + 1;
+    }
+
+    public static String firstName(int person) {
+        return "First" + person;
+    }
+
+    public static String lastName(int person) {
+        return "Last" + person / PERSONS_PER_HOUSEHOLD;
+    }
+
+    /**
+     * Inserts the households, fire stations, persons and their medical records, then moves the id
+     * sequences past the seeded rows. Household {@code h} has id {@code h + 1}.
+     */
+    public void seed(JdbcTemplate jdbcTemplate) {
+        String householdSql = "INSERT INTO household (id, address) VALUES (?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int household = 0; household < households(); household++) {
+            rows.add(new Object[]{household + 1, address(household)});
+            rows = flushIfFull(jdbcTemplate, householdSql, rows);
+        }
+        flush(jdbcTemplate, householdSql, rows);
+
+        String fireStationSql = "INSERT INTO fire_station (id, address, station_number, household_id)"
+                + " VALUES (?, ?, ?, ?)";
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (int household = 0; household < households(); household++) {
+            rows.add(new Object[]{household + 1, address(household), stationNumber(household), household + 1});
+            rows = flushIfFull(jdbcTemplate, fireStationSql, rows);
+        }
+        flush(jdbcTemplate, fireStationSql, rows);
+
+        String personSql = "INSERT INTO person (id, first_name, last_name, address, city, phone, email, age,"
+                + " household_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (int person = 0; person < persons; person++) {
+            int household = person / PERSONS_PER_HOUSEHOLD;
+            rows.add(new Object[]{person + 1, firstName(person), lastName(person), address(household),
+                    city(household), String.format("555-%07d", person), firstName(person) + "@example.com",
+                    person * 7 % 90, household + 1});
+            rows = flushIfFull(jdbcTemplate, personSql, rows);
+        }
+        flush(jdbcTemplate, personSql, rows);
+
+        seedCollection(jdbcTemplate, "INSERT INTO person_medications (person_id, medication) VALUES (?, ?)",
+                "aspirin:100mg");
+        seedCollection(jdbcTemplate, "INSERT INTO person_allergies (person_id, allergy) VALUES (?, ?)",
+                "peanut");
+
+        jdbcTemplate.execute("ALTER SEQUENCE household_seq RESTART WITH " + (households() + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE fire_station_seq RESTART WITH " + (households() + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE person_seq RESTART WITH " + (persons + 1));
+    }
+
+    private void seedCollection(JdbcTemplate jdbcTemplate, String sql, String value) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int person = 0; person < persons; person++) {
+            rows.add(new Object[]{person + 1, value});
+            rows = flushIfFull(jdbcTemplate, sql, rows);
+        }
+        flush(jdbcTemplate, sql, rows);
+    }
+
+    private static List<Object[]> flushIfFull(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        if (rows.size() < BATCH_SIZE) {
+            return rows;
+        }
+        flush(jdbcTemplate, sql, rows);
+        return new ArrayList<>(BATCH_SIZE);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
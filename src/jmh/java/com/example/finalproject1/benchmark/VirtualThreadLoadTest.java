@@ -0,0 +1,270 @@
+package com.example.finalproject1.benchmark;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * HTTP load test comparing request handling on Tomcat's platform thread pool with virtual threads
+ * ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * For each thread mode the application is started on a random port with a {@link SyntheticPopulation}
+ * and the result cache off, so every request reaches JDBC. Closed-loop clients then send a mix of
+ * /firestation, /fire, /childAlert and /flood/stations requests at each concurrency level, and the
+ * throughput and latency percentiles are printed and written to {@code target/load-test-result.csv}.
+ * <p>
+ * In virtual mode a JFR recording captures {@code jdk.VirtualThreadPinned} events, i.e. virtual threads
+ * that blocked while pinned to their carrier (inside {@code synchronized} or a native frame), such as
+ * in H2 or Hikari. The recording is kept as {@code target/load-test-virtual.jfr} and the pinning frames
+ * are summarized.
+ * <p>
+ * Run with:
+ * <pre>
+ * ./mvnw -Pbenchmarks test-compile exec:exec@load-test -Dload.args="population=100000 concurrency=16,64,256,1024 seconds=20"
+ * </pre>
+ * Any other {@code key=value} argument is passed to the application as a property.
+ */
+public final class VirtualThreadLoadTest {
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Path TARGET = Path.of("target");
+
+    private final int population;
+    private final int[] concurrencyLevels;
+    private final Duration duration;
+    private final List<String> properties;
+
+    private VirtualThreadLoadTest(int population, int[] concurrencyLevels, Duration duration, List<String> properties) {
+        this.population = population;
+        this.concurrencyLevels = concurrencyLevels;
+        this.duration = duration;
+        this.properties = properties;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int population = 100_000;
+        int[] concurrencyLevels = {16, 64, 256, 1024};
+        Duration duration = Duration.ofSeconds(20);
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            switch (keyValue[0]) {
+                case "population" -> population = Integer.parseInt(keyValue[1]);
+                case "concurrency" -> concurrencyLevels = Arrays.stream(keyValue[1].split(","))
+                        .mapToInt(Integer::parseInt).toArray();
+                case "seconds" -> duration = Duration.ofSeconds(Long.parseLong(keyValue[1]));
+                default -> properties.add(arg);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        VirtualThreadLoadTest loadTest = new VirtualThreadLoadTest(population, concurrencyLevels, duration, properties);
+        results.addAll(loadTest.run(false));
+        results.addAll(loadTest.run(true));
+
+        Files.createDirectories(TARGET);
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(TARGET.resolve("load-test-result.csv")))) {
+            csv.println("threads,concurrency,requests,errors,throughput,p50_ms,p99_ms,max_ms");
+            System.out.printf("%n%-9s %11s %10s %7s %12s %9s %9s %9s%n",
+                    "threads", "concurrency", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+            for (Result r : results) {
+                csv.printf(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f%n", r.threads(), r.concurrency(),
+                        r.requests(), r.errors(), r.throughput(), r.p50Millis(), r.p99Millis(), r.maxMillis());
+                System.out.printf(Locale.ROOT, "%-9s %11d %10d %7d %12.1f %9.3f %9.3f %9.3f%n", r.threads(),
+                        r.concurrency(), r.requests(), r.errors(), r.throughput(), r.p50Millis(), r.p99Millis(),
+                        r.maxMillis());
+            }
+        }
+    }
+
+    /**
+     * Starts the application in one thread mode and drives it at every concurrency level.
+     */
+    private List<Result> run(boolean virtualThreads) throws Exception {
+        List<String> all = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.cache.type=none",
+                "spring.threads.virtual.enabled=" + virtualThreads));
+        all.addAll(properties);
+        String threads = virtualThreads ? "virtual" : "platform";
+
+        Recording recording = null;
+        if (virtualThreads) {
+            recording = new Recording();
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+        }
+
+        List<Result> results = new ArrayList<>();
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(
+                WebApplicationType.SERVLET, population, all.toArray(String[]::new));
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<URI> uris = requestMix(baseUrl);
+            drive(client, uris, concurrencyLevels[0], WARMUP);
+            for (int concurrency : concurrencyLevels) {
+                Latencies latencies = drive(client, uris, concurrency, duration);
+                results.add(latencies.toResult(threads, concurrency, duration));
+            }
+        } finally {
+            if (recording != null) {
+                recording.stop();
+                Path file = TARGET.resolve("load-test-virtual.jfr");
+                Files.createDirectories(TARGET);
+                recording.dump(file);
+                recording.close();
+                reportPinning(file);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sends requests from {@code concurrency} closed-loop clients, each waiting for its response
+     * before sending the next, for the given duration.
+     */
+    private static Latencies drive(HttpClient client, List<URI> uris, int concurrency, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Latencies>> clients = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.add(executor.submit(() -> {
+                    Latencies latencies = new Latencies();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(uris.get(random.nextInt(uris.size()))).build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            latencies.add(System.nanoTime() - start, response.statusCode() != 200);
+                        } catch (IOException e) {
+                            latencies.add(System.nanoTime() - start, true);
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+        }
+        Latencies all = new Latencies();
+        for (Future<Latencies> future : clients) {
+            all.addAll(future.get());
+        }
+        return all;
+    }
+
+    private List<URI> requestMix(String baseUrl) {
+        SyntheticPopulation syntheticPopulation = new SyntheticPopulation(population);
+        int households = syntheticPopulation.households();
+        int stations = syntheticPopulation.stations();
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            int household = (int) ((long) i * households / 256);
+            int station = SyntheticPopulation.stationNumber(household);
+            String address = URLEncoder.encode(SyntheticPopulation.address(household), StandardCharsets.UTF_8);
+            uris.add(URI.create(baseUrl + "/firestation?stationNumber=" + station));
+            uris.add(URI.create(baseUrl + "/fire?address=" + address));
+            uris.add(URI.create(baseUrl + "/childAlert?address=" + address));
+            uris.add(URI.create(baseUrl + "/flood/stations?stations=" + station + "," + (station % stations + 1)));
+        }
+        return uris;
+    }
+
+    /**
+     * Prints the number of pinned events and the application or library frames they occurred in.
+     */
+    private static void reportPinning(Path file) throws IOException {
+        Map<String, Integer> byFrame = new HashMap<>();
+        int events = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (!event.getEventType().getName().equals("jdk.VirtualThreadPinned")) {
+                continue;
+            }
+            events++;
+            String frame = "(no stack trace)";
+            if (event.getStackTrace() != null) {
+                for (RecordedFrame recordedFrame : event.getStackTrace().getFrames()) {
+                    String type = recordedFrame.getMethod().getType().getName();
+                    if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                        frame = type + "." + recordedFrame.getMethod().getName();
+                        break;
+                    }
+                }
+            }
+            byFrame.merge(frame, 1, Integer::sum);
+        }
+        System.out.printf("%njdk.VirtualThreadPinned: %d events (recording: %s)%n", events, file);
+        byFrame.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(10)
+                .forEach(entry -> System.out.printf("%8d  %s%n", entry.getValue(), entry.getKey()));
+    }
+
+    record Result(String threads, int concurrency, int requests, int errors, double throughput,
+                  double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    /**
+     * Latencies in nanoseconds recorded by one client, later merged.
+     */
+    private static final class Latencies {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private int errors;
+
+        void add(long latencyNanos, boolean error) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latencyNanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        Result toResult(String threads, int concurrency, Duration duration) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new Result(threads, concurrency, size, errors, size / (duration.toMillis() / 1000.0),
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0));
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
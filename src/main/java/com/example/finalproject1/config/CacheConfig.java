@@ -0,0 +1,36 @@
+package com.example.finalproject1.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the result cache of the alert endpoints.
+ * <p>
+ * The caches themselves are Caffeine caches configured through {@code spring.cache.*}
+ * (size bound, TTL and statistics recording); the names below must match {@code spring.cache.cache-names}.
+ * The cache is consulted before the read-only transaction of AlertsService begins, so that a hit does not
+ * borrow a database connection.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    /** Persons by station number. */
+    public static final String PEOPLE_BY_STATION = "peopleByStation";
+
+    /** Adult/child counts by station number. */
+    public static final String STATION_HEADCOUNT = "stationHeadcount";
+
+    /** Phone numbers by station number. */
+    public static final String PHONE_ALERT = "phoneAlert";
+
+    /** Children and other residents by address. */
+    public static final String CHILD_ALERT = "childAlert";
+
+    /** Station number and residents by address. */
+    public static final String FIRE = "fire";
+
+    /** Email addresses by city. */
+    public static final String COMMUNITY_EMAIL = "communityEmail";
+}
@@ -0,0 +1,38 @@
+package com.example.finalproject1.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary representations of the JSON responses, selected through the Accept header:
+ * {@code application/x-jackson-smile} and {@code application/cbor}. JSON stays the default.
+ * <p>
+ * Both encode with copies of the application ObjectMapper, so they carry the same fields as the JSON.
+ * They replace the converters Spring MVC registers by default for these formats.
+ */
+@Configuration
+public class EncodingConfig {
+
+    /**
+     * Smile, with back-references to the short string values already written: the address and city
+     * of a household are repeated by each of its residents.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(factory));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+}
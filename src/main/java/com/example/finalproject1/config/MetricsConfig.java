@@ -0,0 +1,66 @@
+package com.example.finalproject1.config;
+
+import com.example.finalproject1.metrics.RequestStatementMetricsFilter;
+import com.example.finalproject1.metrics.StatementCounter;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Application metrics on top of what Actuator records by itself (HTTP requests, caches, JVM, Hikari).
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Makes {@code @Timed} on AlertsController and AlertsService record timers.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Row counts of the repositories, queried on each scrape.
+     */
+    @Bean
+    public MeterBinder repositoryRowCounts(PersonRepository personRepository,
+                                           FireStationRepository fireStationRepository) {
+        return registry -> {
+            Gauge.builder("alerts.repository.rows", personRepository, PersonRepository::count)
+                    .tag("repository", "person")
+                    .register(registry);
+            Gauge.builder("alerts.repository.rows", fireStationRepository, FireStationRepository::count)
+                    .tag("repository", "fireStation")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    /**
+     * Carries the request's statement counter into the tasks of the application task executor, which
+     * writes the streamed responses.
+     */
+    @Bean
+    public TaskDecorator statementCounterTaskDecorator() {
+        return StatementCounter::propagate;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestStatementMetricsFilter> requestStatementMetricsFilter(MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new RequestStatementMetricsFilter(meterRegistry));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.finalproject1.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} methods, such as the subscription dispatcher's flush and heartbeat.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,33 +1,132 @@
 package com.example.finalproject1.controller;
 
+import com.example.finalproject1.dto.KeysetPage;
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.exception.InvalidRequestException;
+import com.example.finalproject1.index.RequiresDatabase;
 import com.example.finalproject1.model.Person;
 import com.example.finalproject1.service.AlertsService;
+import io.micrometer.core.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/")
+@Timed(value = "alerts.controller", histogram = true)
 public class AlertsController {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertsController.class);
 
+    // Requests answered with an empty result, tagged by endpoint
+    private static final String EMPTY_RESULTS = "alerts.empty.results";
+
     @Autowired
     private AlertsService alertsService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HttpMessageConverters messageConverters;
+
+    // Largest number of stations or addresses a batch request may carry
+    @Value("${alerts.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    // Encodings of the streamed documents by media type, JSON first: those of the converters writing the
+    // other responses, so a streamed response honours the Accept header as they do
+    private final Map<MediaType, ObjectMapper> encodings = new LinkedHashMap<>();
+
+    @PostConstruct
+    void start() {
+        encodings.put(MediaType.APPLICATION_JSON, objectMapper);
+        for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+            if (converter instanceof MappingJackson2SmileHttpMessageConverter
+                    || converter instanceof MappingJackson2CborHttpMessageConverter) {
+                ObjectMapper mapper = ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper();
+                converter.getSupportedMediaTypes().forEach(mediaType -> encodings.putIfAbsent(mediaType, mapper));
+            }
+        }
+    }
+
+    /**
+     * Streams the persons of the station as they are read and counts them on the way; the counts
+     * follow the persons. With countsOnly, nothing but the counts is computed.
+     */
     @GetMapping("/firestation")
-    public ResponseEntity<Map<String, Object>> getPeopleByStation(@RequestParam int stationNumber) {
-        List<Person> people = alertsService.getPeopleByFireStation(stationNumber);
-        Map<String, Object> response = new HashMap<>();
-        response.put("persons", people); // Include empty array if no data
-        response.put("numberOfAdults", people.stream().filter(p -> p.getAge() >= 18).count());
-        response.put("numberOfChildren", people.stream().filter(p -> p.getAge() < 18).count());
+    public ResponseEntity<StreamingResponseBody> getPeopleByStation(@RequestParam int stationNumber,
+                                                                    @RequestParam(defaultValue = "false") boolean countsOnly,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        return document(accept, (generator, writer) -> {
+            StationHeadcount headcount;
+            generator.writeStartObject();
+            if (countsOnly) {
+                // Dashboards poll this mode: counted in the database, no person is loaded
+                headcount = alertsService.getHeadcountByFireStation(stationNumber);
+            } else {
+                StationHeadcount.Tally tally = new StationHeadcount.Tally();
+                generator.writeArrayFieldStart("persons"); // Include empty array if no data
+                alertsService.streamPeopleByFireStation(stationNumber, person -> unchecked(() -> {
+                    writer.writeValue(generator, person);
+                    tally.add(person);
+                }));
+                generator.writeEndArray();
+                headcount = tally.headcount();
+            }
+            generator.writeNumberField("numberOfAdults", headcount.adults());
+            generator.writeNumberField("numberOfChildren", headcount.children());
+            generator.writeEndObject();
+        });
+    }
+
+    /**
+     * Batch variant of /firestation for many stations, keyed by station number.
+     */
+    @PostMapping("/firestation/batch")
+    public ResponseEntity<Map<Integer, Map<String, Object>>> getPeopleByStations(@RequestBody List<Integer> stationNumbers) {
+        logger.info("Received batch request for {} fire stations", stationNumbers.size());
+        checkBatchSize(stationNumbers);
+        Map<Integer, Map<String, Object>> response = new LinkedHashMap<>();
+        alertsService.getPeopleByFireStations(stationNumbers).forEach((stationNumber, people) -> {
+            StationHeadcount headcount = StationHeadcount.of(people);
+            Map<String, Object> station = new HashMap<>();
+            station.put("persons", people);
+            station.put("numberOfAdults", headcount.adults());
+            station.put("numberOfChildren", headcount.children());
+            response.put(stationNumber, station);
+        });
         return ResponseEntity.ok(response);
     }
 
@@ -39,11 +138,22 @@ public class AlertsController {
         Map<String, Object> result = alertsService.getChildrenByAddress(address);
         if (result.isEmpty()) {
             logger.warn("No children or residents found at address: {}", address);
+            countEmpty("childAlert");
             return ResponseEntity.ok(Map.of());
         }
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Batch variant of /childAlert for many addresses, keyed by address; an address without children maps to {}.
+     */
+    @PostMapping("/childAlert/batch")
+    public ResponseEntity<Map<String, Map<String, Object>>> getChildrenByAddresses(@RequestBody List<String> addresses) {
+        logger.info("Received batch request for child alert at {} addresses", addresses.size());
+        checkBatchSize(addresses);
+        return ResponseEntity.ok(alertsService.getChildrenByAddresses(addresses));
+    }
+
     @GetMapping("/phoneAlert")
     public ResponseEntity<Map<String, Object>> getPhoneAlert(@RequestParam int stationNumber) {
         List<String> phoneNumbers = alertsService.getPhoneNumbersByFireStation(stationNumber);
@@ -59,22 +169,52 @@ public class AlertsController {
         Map<String, Object> result = alertsService.getFireDetailsByAddress(address);
         if (result.isEmpty()) {
             logger.warn("No fire details found for address: {}", address);
+            countEmpty("fire");
             return ResponseEntity.ok(Map.of());
         }
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Batch variant of /fire for many addresses, keyed by address; an unknown address maps to {}.
+     */
+    @PostMapping("/fire/batch")
+    public ResponseEntity<Map<String, Map<String, Object>>> getFireDetailsByAddresses(@RequestBody List<String> addresses) {
+        logger.info("Received batch request for fire details at {} addresses", addresses.size());
+        checkBatchSize(addresses);
+        return ResponseEntity.ok(alertsService.getFireDetailsByAddresses(addresses));
+    }
+
+    /**
+     * Streams the households of the stations one at a time, as they are read; {} if there are none.
+     */
     @GetMapping("/flood/stations")
-    public ResponseEntity<?> getFloodDetailsByStations(@RequestParam("stations") List<Integer> stationNumbers) {
+    public ResponseEntity<StreamingResponseBody> getFloodDetailsByStations(@RequestParam("stations") List<Integer> stationNumbers,
+                                                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
         logger.info("Received request for flood details for station numbers: {}", stationNumbers);
-        Map<String, List<Person>> households = alertsService.getFloodDetailsByStations(stationNumbers);
-        if (households.isEmpty()) {
-            logger.warn("No households found for station numbers: {}", stationNumbers);
-            return ResponseEntity.ok(Map.of());
-        }
-        return ResponseEntity.ok(Map.of("households", households));
+        return document(accept, (generator, writer) -> {
+            alertsService.streamFloodHouseholdsByStations(stationNumbers, (address, members) -> unchecked(() -> {
+                // The envelope is opened with the first household
+                if (generator.getOutputContext().inRoot()) {
+                    generator.writeStartObject();
+                    generator.writeObjectFieldStart("households");
+                }
+                generator.writeFieldName(address);
+                writer.writeValue(generator, members);
+            }));
+            if (generator.getOutputContext().inRoot()) {
+                logger.warn("No households found for station numbers: {}", stationNumbers);
+                countEmpty("flood/stations");
+                generator.writeStartObject();
+            } else {
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        });
     }
 
+    @RequiresDatabase
     @GetMapping("/personInfo")
     public ResponseEntity<?> getPersonInfo(@RequestParam("firstName") String firstName,
                                            @RequestParam("lastName") String lastName) {
@@ -82,26 +222,164 @@ public class AlertsController {
         List<Person> persons = alertsService.getPersonInfo(firstName, lastName);
         if (persons.isEmpty()) {
             logger.warn("No person found with name: {} {}", firstName, lastName);
+            countEmpty("personInfo");
             return ResponseEntity.ok(Map.of());
         }
         return ResponseEntity.ok(Map.of("persons", persons));
     }
 
+    @RequiresDatabase
     @GetMapping("/communityEmail")
     public ResponseEntity<?> getCommunityEmails(@RequestParam("city") String city) {
         logger.info("Received request for community emails in city: {}", city);
         List<String> emails = alertsService.getCommunityEmails(city);
         if (emails.isEmpty()) {
             logger.warn("No emails found for city: {}", city);
+            countEmpty("communityEmail");
             return ResponseEntity.ok(Map.of());
         }
         return ResponseEntity.ok(Map.of("emails", emails));
     }
 
+    @RequiresDatabase
+    @GetMapping(value = "/communityEmail", params = "limit")
+    public ResponseEntity<KeysetPage<String>> getCommunityEmailsPage(@RequestParam("city") String city,
+                                                                     @RequestParam("limit") int limit,
+                                                                     @RequestParam(value = "after", required = false) Long after) {
+        logger.info("Received request for community emails in city: {} after: {} limit: {}", city, after, limit);
+        return ResponseEntity.ok(alertsService.getCommunityEmailsPage(city, after, limit));
+    }
+
+    @RequiresDatabase
+    @GetMapping(value = "/communityEmail", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCommunityEmails(@RequestParam("city") String city) {
+        logger.info("Received request to stream community emails in city: {}", city);
+        return ndjson(sink -> alertsService.streamCommunityEmails(city, sink::accept));
+    }
 
+
+    @RequiresDatabase
     @GetMapping("/test")
     public ResponseEntity<?> testEndpoint() {
         List<Person> allPersons = alertsService.getAllPersons();
         return ResponseEntity.ok(allPersons);
     }
+
+    @RequiresDatabase
+    @GetMapping(value = "/test", params = "limit")
+    public ResponseEntity<KeysetPage<Person>> testEndpointPage(@RequestParam("limit") int limit,
+                                                               @RequestParam(value = "after", required = false) Long after) {
+        return ResponseEntity.ok(alertsService.getPersonsPage(after, limit));
+    }
+
+    @RequiresDatabase
+    @GetMapping(value = "/test", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> testEndpointStream() {
+        return ndjson(sink -> alertsService.streamAllPersons(sink::accept));
+    }
+
+    /**
+     * Writes the values produced by the source as newline-delimited JSON while they are produced,
+     * so the response is never held in memory as a whole.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<Object>> source) {
+        ObjectWriter writer = valueWriter(objectMapper);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                source.accept(value -> unchecked(() -> {
+                    writer.writeValue(generator, value);
+                    generator.writeRaw('\n');
+                }));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Writes a document through a generator while its content is produced, so that only the value being
+     * written is held in memory. The document is JSON, or Smile or CBOR when the Accept header asks for it.
+     */
+    private ResponseEntity<StreamingResponseBody> document(String accept, JsonContent content)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = negotiate(accept);
+        ObjectMapper mapper = encodings.get(mediaType);
+        ObjectWriter writer = valueWriter(mapper);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+                content.writeTo(generator, writer);
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    /**
+     * @return the encoding the Accept header prefers: its media types by quality, then specificity, then
+     *         order, skipping those with {@code q=0} and the encodings they exclude; JSON if it is missing
+     * @throws HttpMediaTypeNotAcceptableException if it allows none or cannot be parsed, as for the other endpoints
+     */
+    private MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptables;
+        try {
+            acceptables = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotAcceptableException("Could not parse Accept header: " + e.getMessage());
+        }
+        List<MediaType> excluded = acceptables.stream().filter(mediaType -> mediaType.getQualityValue() == 0).toList();
+        acceptables.removeAll(excluded);
+        MimeTypeUtils.sortBySpecificity(acceptables);
+        // Stable: specificity, then header order, still decide between equal qualities
+        acceptables.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptable : acceptables) {
+            for (MediaType mediaType : encodings.keySet()) {
+                if (acceptable.includes(mediaType) && excluded.stream().noneMatch(no -> no.includes(mediaType))) {
+                    return mediaType;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(List.copyOf(encodings.keySet()));
+    }
+
+    // Values are flushed with the response buffer, not one by one
+    private static ObjectWriter valueWriter(ObjectMapper mapper) {
+        return mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Generator writes from within the service's sinks, which cannot throw IOException
+    private static void unchecked(JsonWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonContent {
+        void writeTo(JsonGenerator generator, ObjectWriter writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface JsonWrite {
+        void run() throws IOException;
+    }
+
+    /**
+     * Rejects a batch request larger than alerts.batch.max-size, which bounds the IN list of its queries.
+     *
+     * @throws InvalidRequestException answered with 400
+     */
+    private void checkBatchSize(List<?> batch) {
+        if (batch.size() > maxBatchSize) {
+            throw new InvalidRequestException(
+                    "Batch of " + batch.size() + " entries exceeds the maximum of " + maxBatchSize);
+        }
+    }
+
+    private void countEmpty(String endpoint) {
+        Metrics.counter(EMPTY_RESULTS, "endpoint", endpoint).increment();
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.finalproject1.controller;
+
+import com.example.finalproject1.dto.BulkWriteResult;
+import com.example.finalproject1.dto.FireStationMapping;
+import com.example.finalproject1.service.DataWriteService;
+import com.example.finalproject1.index.RequiresDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Writes fire station mappings, i.e. which station covers an address. An address may be covered
+ * by several stations; moving it is a delete of the old mapping and a put of the new one.
+ */
+@RestController
+@RequiresDatabase
+@RequestMapping("/firestation")
+public class FireStationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FireStationController.class);
+
+    @Autowired
+    private DataWriteService dataWriteService;
+
+    /**
+     * Adds the mapping unless it exists: 201 when inserted, 200 when it already existed.
+     */
+    @PutMapping
+    public ResponseEntity<FireStationMapping> upsertFireStation(@RequestBody FireStationMapping mapping) {
+        logger.info("Received upsert of fire station {} for address: {}", mapping.station(), mapping.address());
+        boolean inserted = dataWriteService.upsertFireStation(mapping);
+        return ResponseEntity.status(inserted ? HttpStatus.CREATED : HttpStatus.OK).body(mapping);
+    }
+
+    /**
+     * Deletes the mapping of an address to one station, or to every station when none is given.
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> deleteFireStation(@RequestParam("address") String address,
+                                                  @RequestParam(value = "station", required = false) Integer station) {
+        logger.info("Received delete of fire station {} for address: {}", station, address);
+        return dataWriteService.deleteFireStation(address, station)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Upserts newline-delimited JSON mappings, in the format of the data file.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkWriteResult> bulkUpsertFireStations(InputStream body) throws IOException {
+        logger.info("Received bulk upsert of fire stations");
+        return ResponseEntity.ok(dataWriteService.bulkUpsertFireStations(body));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.finalproject1.controller;
+
+import com.example.finalproject1.notification.DispatchReport;
+import com.example.finalproject1.notification.NotificationDispatcher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.example.finalproject1.index.RequiresDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Sends the request body as a message to the recipients /phoneAlert and /communityEmail list.
+ * <p>
+ * A dispatch is accepted with 202 and runs in the background; its Location, {@code /notifications/{id}},
+ * answers 202 while it runs and the dispatch report once every recipient was delivered or given up on.
+ * When too many dispatches are pending, new ones get 503.
+ */
+@RestController
+@RequestMapping("/notifications")
+public class NotificationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    private final Cache<String, CompletableFuture<DispatchReport>> dispatches = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    @RequiresDatabase
+    @PostMapping("/phoneAlert")
+    public ResponseEntity<Void> notifyFireStation(@RequestParam("firestation") int stationNumber,
+                                                  @RequestBody String message) {
+        logger.info("Received SMS dispatch request for fire station number: {}", stationNumber);
+        if (message.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return accept(() -> notificationDispatcher.notifyFireStation(stationNumber, message));
+    }
+
+    @RequiresDatabase
+    @PostMapping("/communityEmail")
+    public ResponseEntity<Void> notifyCity(@RequestParam("city") String city,
+                                           @RequestBody String message) {
+        logger.info("Received email dispatch request for city: {}", city);
+        if (message.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return accept(() -> notificationDispatcher.notifyCity(city, message));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<DispatchReport> getDispatch(@PathVariable("id") String id) {
+        CompletableFuture<DispatchReport> dispatch = dispatches.getIfPresent(id);
+        if (dispatch == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!dispatch.isDone()) {
+            return ResponseEntity.accepted().build();
+        }
+        // A failed dispatch rethrows here and is answered as any other error
+        return ResponseEntity.ok(dispatch.join());
+    }
+
+    private ResponseEntity<Void> accept(Supplier<CompletableFuture<DispatchReport>> dispatch) {
+        CompletableFuture<DispatchReport> report;
+        try {
+            report = dispatch.get();
+        } catch (RejectedExecutionException e) {
+            logger.warn("Rejected dispatch: too many dispatches pending");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        String id = UUID.randomUUID().toString();
+        dispatches.put(id, report);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/notifications/{id}").buildAndExpand(id).toUri())
+                .build();
+    }
+}
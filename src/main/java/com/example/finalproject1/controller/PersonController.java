@@ -0,0 +1,58 @@
+package com.example.finalproject1.controller;
+
+import com.example.finalproject1.dto.BulkWriteResult;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.service.DataWriteService;
+import com.example.finalproject1.index.RequiresDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Writes persons. A person is identified by first and last name.
+ */
+@RestController
+@RequiresDatabase
+@RequestMapping("/person")
+public class PersonController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonController.class);
+
+    @Autowired
+    private DataWriteService dataWriteService;
+
+    /**
+     * Inserts the person, or updates the person with the same name: 201 when inserted, 200 when updated.
+     */
+    @PutMapping
+    public ResponseEntity<Person> upsertPerson(@RequestBody Person person) {
+        logger.info("Received upsert of person: {} {}", person.getFirstName(), person.getLastName());
+        boolean inserted = dataWriteService.upsertPerson(person);
+        return ResponseEntity.status(inserted ? HttpStatus.CREATED : HttpStatus.OK).body(person);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> deletePerson(@RequestParam("firstName") String firstName,
+                                             @RequestParam("lastName") String lastName) {
+        logger.info("Received delete of person: {} {}", firstName, lastName);
+        return dataWriteService.deletePerson(firstName, lastName)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Upserts newline-delimited JSON persons, e.g. the nightly census feed.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkWriteResult> bulkUpsertPersons(InputStream body) throws IOException {
+        logger.info("Received bulk upsert of persons");
+        return ResponseEntity.ok(dataWriteService.bulkUpsertPersons(body));
+    }
+}
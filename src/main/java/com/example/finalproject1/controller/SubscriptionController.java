@@ -0,0 +1,48 @@
+package com.example.finalproject1.controller;
+
+import com.example.finalproject1.subscription.AlertChangeDispatcher;
+import com.example.finalproject1.subscription.AlertSubscriptionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Server-Sent Events subscriptions to a station's /firestation result or an address's /fire result.
+ * The current result is sent on subscription and again whenever the underlying data changes.
+ */
+@RestController
+@RequestMapping("/subscriptions")
+public class SubscriptionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionController.class);
+
+    @Autowired
+    private AlertSubscriptionRegistry registry;
+
+    @Autowired
+    private AlertChangeDispatcher dispatcher;
+
+    @GetMapping(value = "/firestation", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeStation(@RequestParam int stationNumber) throws IOException {
+        logger.info("Received subscription for fire station number: {}", stationNumber);
+        SseEmitter emitter = registry.subscribeStation(stationNumber);
+        emitter.send(dispatcher.event("station", dispatcher.stationResult(stationNumber)));
+        return emitter;
+    }
+
+    @GetMapping(value = "/fire", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeAddress(@RequestParam("address") String address) throws IOException {
+        logger.info("Received subscription for address: {}", address);
+        SseEmitter emitter = registry.subscribeAddress(address);
+        emitter.send(dispatcher.event("address", dispatcher.addressResult(address)));
+        return emitter;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.finalproject1.dto;
+
+/**
+ * A {@link ResidentSummary} together with its address, for lookups of several addresses at once.
+ *
+ * @param address   the address
+ * @param firstName the first name
+ * @param lastName  the last name
+ * @param age       the age
+ */
+public record AddressedResident(String address, String firstName, String lastName, int age) {
+
+    public ResidentSummary summary() {
+        return new ResidentSummary(firstName, lastName, age);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.finalproject1.dto;
+
+/**
+ * Outcome of a bulk upload.
+ *
+ * @param rows          records read from the upload
+ * @param inserted      records written as new rows
+ * @param existing      records matching an existing row: persons are updated in place, fire station
+ *                      mappings that already exist are left as they are
+ * @param chunks        transactions committed
+ * @param elapsedMillis time taken by the whole upload
+ */
+public record BulkWriteResult(long rows, long inserted, long existing, long chunks, long elapsedMillis) {
+}
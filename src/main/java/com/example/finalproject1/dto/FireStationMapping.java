@@ -0,0 +1,19 @@
+package com.example.finalproject1.dto;
+
+import com.example.finalproject1.model.FireStation;
+
+/**
+ * An address covered by a fire station, as it appears in the data file and the write endpoints.
+ *
+ * @param address the covered address
+ * @param station the fire station number
+ */
+public record FireStationMapping(String address, int station) {
+
+    public FireStation toEntity() {
+        FireStation fs = new FireStation();
+        fs.setAddress(address);
+        fs.setStationNumber(station);
+        return fs;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.finalproject1.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a result ordered by id. The next page is requested with {@code after=next}.
+ *
+ * @param items the items of this page
+ * @param next  id of the last row of this page, or {@code null} if this is the last page
+ * @param <T>   the item type
+ */
+public record KeysetPage<T>(List<T> items, Long next) {
+
+    /**
+     * Builds a page from rows fetched with a limit; a full page may have a successor, a shorter one has not.
+     *
+     * @param rows  the rows, in id order
+     * @param limit the limit the rows were fetched with
+     * @param id    the id of a row
+     * @param item  the item to return for a row
+     * @return the page
+     */
+    public static <R, T> KeysetPage<T> of(List<R> rows, int limit, Function<R, Long> id, Function<R, T> item) {
+        Long next = rows.size() == limit && !rows.isEmpty() ? id.apply(rows.get(rows.size() - 1)) : null;
+        return new KeysetPage<>(rows.stream().map(item).toList(), next);
+    }
+}
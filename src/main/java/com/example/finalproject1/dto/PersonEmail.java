@@ -0,0 +1,10 @@
+package com.example.finalproject1.dto;
+
+/**
+ * Email address of a person, with the person id used as keyset cursor.
+ *
+ * @param id    the person id
+ * @param email the email address
+ */
+public record PersonEmail(Long id, String email) {
+}
@@ -0,0 +1,21 @@
+package com.example.finalproject1.dto;
+
+import com.example.finalproject1.model.Person;
+
+/**
+ * Name and age of a resident, as listed by /childAlert; no contact or medical data.
+ *
+ * @param firstName the first name
+ * @param lastName  the last name
+ * @param age       the age
+ */
+public record ResidentSummary(String firstName, String lastName, int age) {
+
+    /**
+     * @param person an already loaded person
+     * @return the summary of the person
+     */
+    public static ResidentSummary of(Person person) {
+        return new ResidentSummary(person.getFirstName(), person.getLastName(), person.getAge());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.finalproject1.dto;
+
+/**
+ * A household covered by a fire station.
+ *
+ * @param stationNumber the fire station number
+ * @param householdId   the id of the covered household
+ */
+public record StationCoverage(int stationNumber, Long householdId) {
+}
@@ -0,0 +1,47 @@
+package com.example.finalproject1.dto;
+
+import com.example.finalproject1.model.Person;
+
+import java.util.List;
+
+/**
+ * Number of adults (18 and over) and children living in a fire station's jurisdiction.
+ *
+ * @param adults   persons aged 18 or more
+ * @param children persons under 18
+ */
+public record StationHeadcount(Long adults, Long children) {
+
+    /**
+     * Counts adults and children of an already loaded list in a single pass.
+     *
+     * @param people the persons to count
+     * @return the headcount
+     */
+    public static StationHeadcount of(List<Person> people) {
+        Tally tally = new Tally();
+        people.forEach(tally::add);
+        return tally.headcount();
+    }
+
+    /**
+     * Counts adults and children one person at a time, for persons that are streamed rather than loaded.
+     */
+    public static final class Tally {
+
+        private long adults;
+        private long children;
+
+        public void add(Person person) {
+            if (person.getAge() >= 18) {
+                adults++;
+            } else {
+                children++;
+            }
+        }
+
+        public StationHeadcount headcount() {
+            return new StationHeadcount(adults, children);
+        }
+    }
+}
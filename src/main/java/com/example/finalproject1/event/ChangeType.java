@@ -0,0 +1,9 @@
+package com.example.finalproject1.event;
+
+/**
+ * Kind of write observed on a persisted entity.
+ */
+public enum ChangeType {
+    SAVED,
+    DELETED
+}
@@ -0,0 +1,43 @@
+package com.example.finalproject1.event;
+
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns every write on {@link Person} and {@link FireStation}
+ * into an application event, so read-side structures can follow the database.
+ * Hibernate obtains this listener from the Spring bean container, which is what
+ * allows the publisher to be injected.
+ */
+public class EntityChangePublisher {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        publish(entity, ChangeType.SAVED);
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        publish(entity, ChangeType.DELETED);
+    }
+
+    private void publish(Object entity, ChangeType type) {
+        if (eventPublisher == null) {
+            return;
+        }
+        if (entity instanceof Person person) {
+            eventPublisher.publishEvent(new PersonChangedEvent(person, type));
+        } else if (entity instanceof FireStation fireStation) {
+            eventPublisher.publishEvent(new FireStationChangedEvent(fireStation, type));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.finalproject1.event;
+
+import com.example.finalproject1.model.FireStation;
+
+/**
+ * Published whenever a {@link FireStation} row is inserted, updated or removed.
+ *
+ * @param fireStation           the entity as it was written
+ * @param type                  whether the row was saved or deleted
+ * @param previousAddress       the address stored before this write, {@code null} for a new row
+ * @param previousStationNumber the station number stored before this write, {@code null} for a new row
+ */
+public record FireStationChangedEvent(FireStation fireStation, ChangeType type,
+                                      String previousAddress, Integer previousStationNumber) {
+
+    public FireStationChangedEvent(FireStation fireStation, ChangeType type) {
+        this(fireStation, type, fireStation.getPersistedAddress(), fireStation.getPersistedStationNumber());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.finalproject1.event;
+
+import com.example.finalproject1.model.Person;
+
+/**
+ * Published whenever a {@link Person} row is inserted, updated or removed.
+ *
+ * @param person          the entity as it was written
+ * @param type            whether the row was saved or deleted
+ * @param previousAddress the address stored before this write, {@code null} for a new row
+ * @param previousCity    the city stored before this write, {@code null} for a new row
+ */
+public record PersonChangedEvent(Person person, ChangeType type, String previousAddress, String previousCity) {
+
+    public PersonChangedEvent(Person person, ChangeType type) {
+        this(person, type, person.getPersistedAddress(), person.getPersistedCity());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.finalproject1.exception;
+
+/**
+ * Thrown for a request body the client has to correct: an invalid or malformed record, or a batch
+ * with too many entries. Answered with 400 and the message.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.finalproject1.index;
+
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.event.ChangeType;
+import com.example.finalproject1.event.FireStationChangedEvent;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Read-optimized, in-memory view of station -> addresses -> households -> persons.
+ * <p>
+ * The index is built from the repositories once the application is ready and is then kept
+ * in step with the database through {@link PersonChangedEvent} and {@link FireStationChangedEvent}.
+ * Changes made inside a transaction are applied together after it commits, so readers always see
+ * a complete snapshot: either the one before the transaction or the one after it.
+ * <p>
+ * Enabled with {@code alerts.index.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alerts.index", name = "enabled", havingValue = "true")
+public class AlertIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertIndex.class);
+
+    private static final Comparator<Long> BY_ID = Comparator.nullsLast(Comparator.naturalOrder());
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FireStationRepository fireStationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Builds the index once the application is ready, i.e. after the startup data has been loaded,
+     * unless it was already loaded, e.g. from a snapshot. Requests arriving before that are answered
+     * by the repositories.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIfNotLoaded() {
+        if (!isReady()) {
+            build();
+        }
+    }
+
+    /**
+     * Builds the index from the repositories.
+     */
+    public void build() {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status ->
+                load(fireStationRepository.findAll(), personRepository.findAll()));
+        Snapshot built = snapshot;
+        logger.info("Alert index built with {} fire stations and {} persons in {} ms",
+                built.stationsById.size(), built.personsById.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replaces the index content with the given stations and persons.
+     *
+     * @param fireStations all fire stations
+     * @param persons      all persons
+     */
+    public synchronized void load(Collection<FireStation> fireStations, Collection<Person> persons) {
+        Map<Long, FireStation> stationsById = new HashMap<>();
+        for (FireStation fireStation : fireStations) {
+            stationsById.put(fireStation.getId(), copyOf(fireStation));
+        }
+        Map<Long, Person> personsById = new HashMap<>();
+        for (Person person : persons) {
+            personsById.put(person.getId(), copyOf(person));
+        }
+        snapshot = Snapshot.of(stationsById, personsById);
+    }
+
+    /**
+     * Whether the index has been built and can answer lookups.
+     *
+     * @return true once {@link #build()} or {@link #load} has completed
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * The indexed fire stations, e.g. to write a snapshot of them.
+     */
+    public Collection<FireStation> fireStations() {
+        return Collections.unmodifiableCollection(snapshot.stationsById.values());
+    }
+
+    /**
+     * The indexed persons, e.g. to write a snapshot of them.
+     */
+    public Collection<Person> persons() {
+        return Collections.unmodifiableCollection(snapshot.personsById.values());
+    }
+
+    /**
+     * Retrieves all persons living at an address covered by the given station.
+     *
+     * @param stationNumber the fire station number
+     * @return persons in the station's jurisdiction or empty list if none found
+     */
+    public List<Person> findPeopleByStation(int stationNumber) {
+        Snapshot current = snapshot;
+        List<Person> people = new ArrayList<>();
+        for (int addressId : current.stations.index().addressIds(stationNumber)) {
+            String address = current.stations.addresses()[addressId];
+            people.addAll(current.householdsByAddress.getOrDefault(address, List.of()));
+        }
+        return people;
+    }
+
+    /**
+     * Counts the adults and children covered by the given station without copying any resident list.
+     *
+     * @param stationNumber the fire station number
+     * @return the headcount, zero when the station is unknown
+     */
+    public StationHeadcount countByStation(int stationNumber) {
+        Snapshot current = snapshot;
+        long adults = 0;
+        long children = 0;
+        for (int addressId : current.stations.index().addressIds(stationNumber)) {
+            String address = current.stations.addresses()[addressId];
+            for (Person resident : current.householdsByAddress.getOrDefault(address, List.of())) {
+                if (resident.getAge() >= 18) {
+                    adults++;
+                } else {
+                    children++;
+                }
+            }
+        }
+        return new StationHeadcount(adults, children);
+    }
+
+    /**
+     * Retrieves the households covered by the given stations.
+     *
+     * @param stationNumbers the fire station numbers
+     * @return map of address to residents, only containing addresses that have residents
+     */
+    public Map<String, List<Person>> findHouseholdsByStations(Collection<Integer> stationNumbers) {
+        Snapshot current = snapshot;
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        for (Integer stationNumber : stationNumbers) {
+            for (int addressId : current.stations.index().addressIds(stationNumber)) {
+                String address = current.stations.addresses()[addressId];
+                List<Person> residents = current.householdsByAddress.get(address);
+                if (residents != null) {
+                    households.put(address, residents);
+                }
+            }
+        }
+        return households;
+    }
+
+    /**
+     * Retrieves the residents of an address.
+     *
+     * @param address the address
+     * @return residents ordered by id or empty list if none found
+     */
+    public List<Person> findResidents(String address) {
+        return snapshot.householdsByAddress.getOrDefault(address, List.of());
+    }
+
+    /**
+     * Retrieves the number of the station covering an address.
+     *
+     * @param address the address
+     * @return the station number, or empty if no station covers the address
+     */
+    public OptionalInt findStationNumber(String address) {
+        Integer stationNumber = snapshot.stations.stationByAddress().get(address);
+        return stationNumber == null ? OptionalInt.empty() : OptionalInt.of(stationNumber);
+    }
+
+    @EventListener
+    public void onPersonChanged(PersonChangedEvent event) {
+        Person person = event.person();
+        Person value = event.type() == ChangeType.DELETED ? null : copyOf(person);
+        record(changes -> changes.persons.put(person.getId(), value));
+    }
+
+    @EventListener
+    public void onFireStationChanged(FireStationChangedEvent event) {
+        FireStation fireStation = event.fireStation();
+        FireStation value = event.type() == ChangeType.DELETED ? null : copyOf(fireStation);
+        record(changes -> changes.stations.put(fireStation.getId(), value));
+    }
+
+    /**
+     * Adds a change to the change set of the current transaction, registering that set on first use
+     * so it is applied once the transaction commits. Outside a transaction the change is applied immediately.
+     */
+    private void record(Consumer<PendingChanges> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges changes = new PendingChanges();
+            change.accept(changes);
+            apply(changes);
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges changes && changes.owner() == this) {
+                change.accept(changes);
+                return;
+            }
+        }
+        PendingChanges changes = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(changes);
+        change.accept(changes);
+    }
+
+    private synchronized void apply(PendingChanges changes) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Not built yet: build() reads the committed rows, this change included.
+            return;
+        }
+        snapshot = current.with(changes);
+    }
+
+    static Person copyOf(Person person) {
+        Person copy = new Person(person.getFirstName(), person.getLastName(), person.getAddress(),
+                person.getCity(), person.getPhone(), person.getEmail(), person.getAge(),
+                copyOf(person.getMedications()), copyOf(person.getAllergies()));
+        copy.setId(person.getId());
+        return copy;
+    }
+
+    static FireStation copyOf(FireStation fireStation) {
+        FireStation copy = new FireStation();
+        copy.setId(fireStation.getId());
+        copy.setAddress(fireStation.getAddress());
+        copy.setStationNumber(fireStation.getStationNumber());
+        return copy;
+    }
+
+    private static List<String> copyOf(List<String> values) {
+        return values == null ? null : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    /**
+     * Changes collected for one transaction. A {@code null} value marks a deleted row.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Long, Person> persons = new LinkedHashMap<>();
+        private final Map<Long, FireStation> stations = new LinkedHashMap<>();
+
+        AlertIndex owner() {
+            return AlertIndex.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(this);
+        }
+    }
+
+    /**
+     * Immutable view of the indexed data. Updates produce a new snapshot that shares every
+     * household the change did not touch.
+     */
+    private static final class Snapshot {
+
+        private final Map<Long, FireStation> stationsById;
+        private final Map<Long, Person> personsById;
+        private final StationLookups stations;
+        private final Map<String, List<Person>> householdsByAddress;
+
+        private Snapshot(Map<Long, FireStation> stationsById, Map<Long, Person> personsById,
+                         StationLookups stations,
+                         Map<String, List<Person>> householdsByAddress) {
+            this.stationsById = stationsById;
+            this.personsById = personsById;
+            this.stations = stations;
+            this.householdsByAddress = householdsByAddress;
+        }
+
+        static Snapshot of(Map<Long, FireStation> stationsById, Map<Long, Person> personsById) {
+            Map<String, List<Person>> households = new HashMap<>();
+            for (Person person : personsById.values()) {
+                households.computeIfAbsent(person.getAddress(), address -> new ArrayList<>()).add(person);
+            }
+            households.replaceAll((address, residents) -> sortedById(residents));
+            return new Snapshot(stationsById, personsById, StationLookups.of(stationsById), households);
+        }
+
+        Snapshot with(PendingChanges changes) {
+            Snapshot result = this;
+            if (!changes.stations.isEmpty()) {
+                Map<Long, FireStation> stations = new HashMap<>(stationsById);
+                changes.stations.forEach((id, station) -> {
+                    if (station == null) {
+                        stations.remove(id);
+                    } else {
+                        stations.put(id, station);
+                    }
+                });
+                // Stations are few compared to persons, so their lookups are simply recomputed.
+                result = new Snapshot(stations, personsById, StationLookups.of(stations), householdsByAddress);
+            }
+            if (!changes.persons.isEmpty()) {
+                result = result.withPersons(changes.persons);
+            }
+            return result;
+        }
+
+        private Snapshot withPersons(Map<Long, Person> changed) {
+            Map<Long, Person> persons = new HashMap<>(personsById);
+            Map<String, List<Person>> households = new HashMap<>(householdsByAddress);
+            Map<String, List<Person>> arrivals = new HashMap<>();
+            Set<String> touched = new HashSet<>();
+            changed.forEach((id, person) -> {
+                Person previous = person == null ? persons.remove(id) : persons.put(id, person);
+                if (previous != null) {
+                    touched.add(previous.getAddress());
+                }
+                if (person != null) {
+                    touched.add(person.getAddress());
+                    arrivals.computeIfAbsent(person.getAddress(), address -> new ArrayList<>()).add(person);
+                }
+            });
+            for (String address : touched) {
+                List<Person> residents = new ArrayList<>();
+                for (Person resident : households.getOrDefault(address, List.of())) {
+                    if (!changed.containsKey(resident.getId())) {
+                        residents.add(resident);
+                    }
+                }
+                residents.addAll(arrivals.getOrDefault(address, List.of()));
+                if (residents.isEmpty()) {
+                    households.remove(address);
+                } else {
+                    households.put(address, sortedById(residents));
+                }
+            }
+            return new Snapshot(stationsById, persons, stations, households);
+        }
+
+        private static List<Person> sortedById(List<Person> residents) {
+            residents.sort(Comparator.comparing(Person::getId, BY_ID));
+            return Collections.unmodifiableList(residents);
+        }
+    }
+
+    /**
+     * Station lookups. Addresses are numbered in station id order, and stations map to address ids
+     * through a {@link StationIndex}, so resolving a station allocates nothing.
+     */
+    private record StationLookups(StationIndex index, String[] addresses,
+                                  Map<String, Integer> stationByAddress) {
+
+        static StationLookups of(Map<Long, FireStation> stationsById) {
+            List<FireStation> stations = new ArrayList<>(stationsById.values());
+            stations.sort(Comparator.comparing(FireStation::getId, BY_ID));
+            StationIndex.Builder index = new StationIndex.Builder();
+            Map<String, Integer> idsByAddress = new HashMap<>();
+            Map<String, Integer> stationByAddress = new HashMap<>();
+            for (FireStation station : stations) {
+                Integer addressId = idsByAddress.computeIfAbsent(station.getAddress(), address -> idsByAddress.size());
+                index.add(station.getStationNumber(), addressId);
+                // Same rule as the repository path: the first station registered for an address wins.
+                stationByAddress.putIfAbsent(station.getAddress(), station.getStationNumber());
+            }
+            String[] addresses = new String[idsByAddress.size()];
+            idsByAddress.forEach((address, id) -> addresses[id] = address);
+            return new StationLookups(index.build(), addresses, stationByAddress);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.finalproject1.index;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Restores the AlertIndex from a {@link SnapshotFile} at startup instead of loading the data file.
+ * <p>
+ * {@link com.example.finalproject1.loader.DataLoader} asks for a restore before it parses the data file.
+ * If the snapshot at {@code alerts.snapshot.path} matches the data file, the index is loaded from it and
+ * the database stays empty: the alert endpoints the index answers are served, while those that read
+ * the database (/personInfo, /communityEmail, /test, notifications) and the write endpoints answer 503
+ * (see {@link SnapshotRestoreGuard}). Otherwise the data file is loaded as usual and a fresh snapshot is
+ * written once the index is built.
+ * <p>
+ * Enabled with {@code alerts.snapshot.enabled=true}; requires {@code alerts.index.enabled=true}. The
+ * application refuses to start with {@code alerts.reload.enabled=true} as well: a reload would write
+ * to the empty database.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alerts.snapshot", name = "enabled", havingValue = "true")
+public class AlertIndexSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertIndexSnapshot.class);
+
+    @Autowired
+    private AlertIndex alertIndex;
+
+    @Value("${alerts.loader.location:classpath:data.json}")
+    private Resource location;
+
+    @Value("${alerts.snapshot.path:alerts.snapshot}")
+    private Path path;
+
+    @Value("${alerts.reload.enabled:false}")
+    private boolean reloadEnabled;
+
+    private volatile boolean restored;
+
+    @PostConstruct
+    void start() {
+        if (reloadEnabled) {
+            throw new IllegalStateException(
+                    "alerts.snapshot.enabled and alerts.reload.enabled cannot be combined: a restored index leaves the database empty");
+        }
+    }
+
+    /**
+     * @return true if the index was restored from the snapshot, leaving the database empty
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Loads the index from the snapshot if it matches the data file.
+     *
+     * @return true if the index was restored and the data file need not be loaded
+     */
+    public boolean restore() {
+        long start = System.nanoTime();
+        try {
+            SnapshotFile.Contents contents = SnapshotFile.read(path, SnapshotFile.Fingerprint.of(location));
+            if (contents == null) {
+                return false;
+            }
+            alertIndex.load(contents.fireStations(), contents.persons());
+            restored = true;
+            logger.info("Alert index restored from {} with {} fire stations and {} persons in {} ms", path,
+                    contents.fireStations().size(), contents.persons().size(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read snapshot {}, loading the data file instead", path, e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the snapshot after the data file was loaded and the index built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void save() {
+        if (restored) {
+            return;
+        }
+        if (!alertIndex.isReady()) {
+            alertIndex.build();
+        }
+        long start = System.nanoTime();
+        try {
+            SnapshotFile.write(path, SnapshotFile.Fingerprint.of(location), alertIndex.fireStations(),
+                    alertIndex.persons());
+            logger.info("Snapshot written to {} in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Could not write snapshot {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.finalproject1.index;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks the endpoints answered from the database alone: the writes and the reads the AlertIndex does not
+ * serve. They answer 503 on an instance whose index was restored from its snapshot, as the database was
+ * then never loaded (see {@link SnapshotRestoreGuard}).
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresDatabase {
+}
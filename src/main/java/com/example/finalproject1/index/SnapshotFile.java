@@ -0,0 +1,281 @@
+package com.example.finalproject1.index;
+
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the indexed fire stations, households and persons.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header   magic "ALRS", format version, source length and CRC-32C, payload length and CRC-32C
+ * strings  count, then (byte length, UTF-8 bytes) for every distinct string
+ * households  count, then the address of each as a string index
+ * stations    count, then (id, station number, household index) for each
+ * persons     count, then (id, first name, last name, household, city, phone, email, age,
+ *             medication count and strings, allergy count and strings) for each
+ * </pre>
+ * Strings are stored once and referenced by index, {@code -1} standing for null. A snapshot is only
+ * read back if its version, its payload checksum and the fingerprint of the data file it was made
+ * from all match; otherwise it is stale and the data file has to be loaded again.
+ */
+public final class SnapshotFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotFile.class);
+
+    static final int MAGIC = 0x414C5253;
+    // Bump whenever the layout changes
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 4;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Identifies the content of a data file.
+     */
+    public record Fingerprint(long length, long checksum) {
+
+        public static Fingerprint of(Resource resource) throws IOException {
+            CRC32C crc = new CRC32C();
+            long length = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream inputStream = resource.getInputStream()) {
+                int read;
+                while ((read = inputStream.read(buffer)) > 0) {
+                    crc.update(buffer, 0, read);
+                    length += read;
+                }
+            }
+            return new Fingerprint(length, crc.getValue());
+        }
+    }
+
+    /**
+     * Content of a snapshot.
+     */
+    public record Contents(List<FireStation> fireStations, List<Person> persons) {
+    }
+
+    /**
+     * Writes a snapshot, replacing any previous one only once it is complete.
+     */
+    public static void write(Path file, Fingerprint source, Collection<FireStation> fireStations,
+                             Collection<Person> persons) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_BYTES);
+                CRC32C crc = new CRC32C();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), crc), 64 * 1024));
+                writePayload(out, fireStations, persons);
+                out.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(source.length())
+                        .putLong(source.checksum())
+                        .putLong(channel.position() - HEADER_BYTES)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot through a read-only memory mapping.
+     *
+     * @return the content, or null if there is no snapshot or it does not match the source
+     */
+    public static Contents read(Path file, Fingerprint source) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            logger.info("No snapshot at {}", file);
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                logger.warn("Snapshot {} is truncated", file);
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            logger.info("Snapshot {} has another format version", file);
+            return null;
+        }
+        if (!new Fingerprint(buffer.getLong(), buffer.getLong()).equals(source)) {
+            logger.info("Snapshot {} was made from another data file", file);
+            return null;
+        }
+        long payloadLength = buffer.getLong();
+        int checksum = buffer.getInt();
+        if (payloadLength != buffer.remaining()) {
+            logger.warn("Snapshot {} is truncated", file);
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice());
+        if ((int) crc.getValue() != checksum) {
+            logger.warn("Snapshot {} is corrupt", file);
+            return null;
+        }
+        return readPayload(buffer);
+    }
+
+    private static void writePayload(DataOutputStream out, Collection<FireStation> fireStations,
+                                     Collection<Person> persons) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, Integer> households = new LinkedHashMap<>();
+        for (FireStation fireStation : fireStations) {
+            households.putIfAbsent(fireStation.getAddress(), households.size());
+        }
+        for (Person person : persons) {
+            households.putIfAbsent(person.getAddress(), households.size());
+            intern(strings, person.getFirstName(), person.getLastName(), person.getCity(), person.getPhone(),
+                    person.getEmail());
+            intern(strings, valuesOf(person.getMedications()).toArray(String[]::new));
+            intern(strings, valuesOf(person.getAllergies()).toArray(String[]::new));
+        }
+        intern(strings, households.keySet().toArray(String[]::new));
+
+        out.writeInt(strings.size());
+        for (String value : strings.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(households.size());
+        for (String address : households.keySet()) {
+            out.writeInt(indexOf(strings, address));
+        }
+        out.writeInt(fireStations.size());
+        for (FireStation fireStation : fireStations) {
+            out.writeLong(fireStation.getId());
+            out.writeInt(fireStation.getStationNumber());
+            out.writeInt(households.get(fireStation.getAddress()));
+        }
+        out.writeInt(persons.size());
+        for (Person person : persons) {
+            out.writeLong(person.getId());
+            out.writeInt(indexOf(strings, person.getFirstName()));
+            out.writeInt(indexOf(strings, person.getLastName()));
+            out.writeInt(households.get(person.getAddress()));
+            out.writeInt(indexOf(strings, person.getCity()));
+            out.writeInt(indexOf(strings, person.getPhone()));
+            out.writeInt(indexOf(strings, person.getEmail()));
+            out.writeInt(person.getAge() == null ? -1 : person.getAge());
+            writeList(out, strings, person.getMedications());
+            writeList(out, strings, person.getAllergies());
+        }
+    }
+
+    private static Contents readPayload(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        String[] households = new String[buffer.getInt()];
+        for (int i = 0; i < households.length; i++) {
+            households[i] = stringAt(strings, buffer.getInt());
+        }
+        int stationCount = buffer.getInt();
+        List<FireStation> fireStations = new ArrayList<>(stationCount);
+        for (int i = 0; i < stationCount; i++) {
+            FireStation fireStation = new FireStation();
+            fireStation.setId(buffer.getLong());
+            fireStation.setStationNumber(buffer.getInt());
+            fireStation.setAddress(households[buffer.getInt()]);
+            fireStations.add(fireStation);
+        }
+        int personCount = buffer.getInt();
+        List<Person> persons = new ArrayList<>(personCount);
+        for (int i = 0; i < personCount; i++) {
+            long id = buffer.getLong();
+            String firstName = stringAt(strings, buffer.getInt());
+            String lastName = stringAt(strings, buffer.getInt());
+            String address = households[buffer.getInt()];
+            String city = stringAt(strings, buffer.getInt());
+            String phone = stringAt(strings, buffer.getInt());
+            String email = stringAt(strings, buffer.getInt());
+            int age = buffer.getInt();
+            Person person = new Person(firstName, lastName, address, city, phone, email, age < 0 ? null : age,
+                    readList(buffer, strings), readList(buffer, strings));
+            person.setId(id);
+            persons.add(person);
+        }
+        return new Contents(fireStations, persons);
+    }
+
+    private static void writeList(DataOutputStream out, Map<String, Integer> strings, List<String> values)
+            throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(indexOf(strings, value));
+        }
+    }
+
+    private static List<String> readList(ByteBuffer buffer, String[] strings) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(stringAt(strings, buffer.getInt()));
+        }
+        return values;
+    }
+
+    private static void intern(Map<String, Integer> strings, String... values) {
+        for (String value : values) {
+            if (value != null) {
+                strings.putIfAbsent(value, strings.size());
+            }
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> strings, String value) {
+        return value == null ? -1 : strings.get(value);
+    }
+
+    private static String stringAt(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static List<String> valuesOf(List<String> values) {
+        return values == null ? List.of() : values;
+    }
+}
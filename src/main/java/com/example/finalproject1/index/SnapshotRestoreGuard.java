@@ -0,0 +1,47 @@
+package com.example.finalproject1.index;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+
+/**
+ * Rejects the {@link RequiresDatabase} endpoints once the AlertIndex was restored from its snapshot.
+ * <p>
+ * The database is then empty: reads would answer empty results, and writes would insert rows whose ids,
+ * counted from 1, collide with those of the restored persons.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alerts.snapshot", name = "enabled", havingValue = "true")
+public class SnapshotRestoreGuard implements HandlerInterceptor, WebMvcConfigurer {
+
+    @Autowired
+    private AlertIndexSnapshot alertIndexSnapshot;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (alertIndexSnapshot.isRestored() && handler instanceof HandlerMethod method
+                && (method.hasMethodAnnotation(RequiresDatabase.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getBeanType(), RequiresDatabase.class))) {
+            // Answered by the error page rather than an exception handler, whatever media type was accepted
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Not available: this instance serves the alert index restored from its snapshot");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.finalproject1.index;
+
+import java.util.Arrays;
+
+/**
+ * Immutable map from fire station number to the ids of the addresses the station covers, held in
+ * primitive arrays: a lookup neither boxes the station number nor allocates.
+ * <p>
+ * Open addressing with linear probing over a power-of-two table kept at most half full.
+ */
+public final class StationIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final int[] stationNumbers;
+    // Address ids per slot, in insertion order; null marks an empty slot
+    private final int[][] addressIds;
+    private final int mask;
+    private final int size;
+
+    private StationIndex(int[] stationNumbers, int[][] addressIds, int size) {
+        this.stationNumbers = stationNumbers;
+        this.addressIds = addressIds;
+        this.mask = stationNumbers.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the ids of the addresses a station covers.
+     *
+     * @param stationNumber the fire station number
+     * @return the address ids, shared with the index and not to be modified; empty if the station is unknown
+     */
+    public int[] addressIds(int stationNumber) {
+        int slot = slotOf(stationNumber, mask);
+        while (true) {
+            int[] ids = addressIds[slot];
+            if (ids == null) {
+                return NONE;
+            }
+            if (stationNumbers[slot] == stationNumber) {
+                return ids;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the number of stations
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int slotOf(int stationNumber, int mask) {
+        int hash = stationNumber * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Collects (station number, address id) pairs.
+     */
+    public static final class Builder {
+
+        private int[] stations = new int[16];
+        private int[] ids = new int[16];
+        private int count;
+
+        public Builder add(int stationNumber, int addressId) {
+            if (count == stations.length) {
+                stations = Arrays.copyOf(stations, count * 2);
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            stations[count] = stationNumber;
+            ids[count] = addressId;
+            count++;
+            return this;
+        }
+
+        public StationIndex build() {
+            int[] sorted = Arrays.copyOf(stations, count);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    distinct++;
+                }
+            }
+            int capacity = Integer.highestOneBit(Math.max(2, distinct * 2 - 1)) << 1;
+            int[] stationNumbers = new int[capacity];
+            int[][] addressIds = new int[capacity][];
+            int[] sizes = new int[capacity];
+            int mask = capacity - 1;
+
+            // First pass sizes each station's array, second pass fills it in insertion order
+            for (int i = 0; i < count; i++) {
+                int slot = findOrClaim(stationNumbers, addressIds, stations[i], mask);
+                sizes[slot]++;
+            }
+            for (int slot = 0; slot < capacity; slot++) {
+                if (addressIds[slot] != null) {
+                    addressIds[slot] = new int[sizes[slot]];
+                    sizes[slot] = 0;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                int slot = findOrClaim(stationNumbers, addressIds, stations[i], mask);
+                addressIds[slot][sizes[slot]++] = ids[i];
+            }
+            return new StationIndex(stationNumbers, addressIds, distinct);
+        }
+
+        private static int findOrClaim(int[] stationNumbers, int[][] addressIds, int stationNumber, int mask) {
+            int slot = slotOf(stationNumber, mask);
+            while (addressIds[slot] != null && stationNumbers[slot] != stationNumber) {
+                slot = (slot + 1) & mask;
+            }
+            if (addressIds[slot] == null) {
+                stationNumbers[slot] = stationNumber;
+                addressIds[slot] = NONE;
+            }
+            return slot;
+        }
+    }
+}
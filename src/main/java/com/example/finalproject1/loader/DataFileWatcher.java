@@ -0,0 +1,96 @@
+package com.example.finalproject1.loader;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the data file the application was loaded from and reloads it through {@link DataReloader}
+ * whenever it changes. Enabled with {@code alerts.reload.enabled=true}; {@code alerts.loader.location}
+ * must then be a file on disk, e.g. {@code file:/srv/alerts/data.json}.
+ * <p>
+ * Editors and copy tools write a file in several steps, so a reload only starts once no change was
+ * seen in the directory for {@code alerts.reload.quiet-period}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alerts.reload", name = "enabled", havingValue = "true")
+public class DataFileWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataFileWatcher.class);
+
+    @Autowired
+    private DataReloader dataReloader;
+
+    @Value("${alerts.loader.location:classpath:data.json}")
+    private Resource location;
+
+    @Value("${alerts.reload.quiet-period:500ms}")
+    private Duration quietPeriod;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    // After the CommandLineRunners: DataLoader has loaded the file once
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!location.isFile()) {
+            throw new IllegalStateException("alerts.reload.enabled requires alerts.loader.location to be a file, not "
+                    + location.getDescription());
+        }
+        Path file = location.getFile().toPath().toAbsolutePath();
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(() -> watch(file), "data-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Watching {} for changes", file);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            thread.interrupt();
+        }
+    }
+
+    private void watch(Path file) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream()
+                        .anyMatch(event -> file.getFileName().equals(event.context()));
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                WatchKey next;
+                while ((next = watchService.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+                try {
+                    dataReloader.reload(file);
+                } catch (IOException | RuntimeException e) {
+                    // The previous data stays in place; the next change is tried again
+                    logger.error("Could not reload {}", file, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Stopped watching {}", file);
+        }
+    }
+}
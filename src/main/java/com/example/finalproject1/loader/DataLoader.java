@@ -1,67 +1,174 @@
 package com.example.finalproject1.loader;
 
+import com.example.finalproject1.dto.FireStationMapping;
+import com.example.finalproject1.index.AlertIndexSnapshot;
 import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Household;
 import com.example.finalproject1.model.Person;
 import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.HouseholdRepository;
 import com.example.finalproject1.repository.PersonRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Loads the startup data set.
+ * <p>
+ * The JSON document is read with Jackson's streaming parser one record at a time, so only the
+ * current chunk of records is held in memory. Each chunk is saved in its own transaction; with sequence
+ * ids and {@code hibernate.jdbc.batch_size} set, Hibernate sends its inserts as JDBC batches.
+ * <p>
+ * Every distinct address becomes one {@link Household}, shared by the fire stations and persons
+ * at that address. New households are saved ahead of the chunk that first references them. The
+ * address-to-household map is kept for the whole load, so it grows with the number of distinct
+ * addresses, not with the chunk size; it is cleared once loading completes.
+ * <p>
+ * Can be switched off with {@code alerts.loader.enabled=false}, e.g. when a benchmark seeds its own data.
+ * Skipped when the AlertIndex can be restored from an up-to-date {@link AlertIndexSnapshot}.
+ */
 @Component
+@ConditionalOnProperty(prefix = "alerts.loader", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class DataLoader implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
     @Autowired
     private PersonRepository personRepository;
 
     @Autowired
     private FireStationRepository fireStationRepository;
 
+    @Autowired
+    private HouseholdRepository householdRepository;
+
+    @Autowired(required = false)
+    private AlertIndexSnapshot alertIndexSnapshot;
+
+    @Value("${alerts.loader.location:classpath:data.json}")
+    private Resource location;
+
+    @Value("${alerts.loader.chunk-size:1000}")
+    private int chunkSize;
+
+    // Households of this load by address, and those not saved yet
+    private final Map<String, Household> households = new HashMap<>();
+    private final List<Household> unsavedHouseholds = new ArrayList<>();
+
     @Override
-    @Transactional
     public void run(String... args) throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        TypeReference<Map<String, List<Map<String, Object>>>> typeRef = new TypeReference<>() {};
+        if (!location.exists()) {
+            throw new RuntimeException(location.getDescription() + " not found.");
+        }
+        if (alertIndexSnapshot != null && alertIndexSnapshot.restore()) {
+            logger.info("Data loading skipped: alert index restored from its snapshot.");
+            return;
+        }
 
-        InputStream inputStream = TypeReference.class.getResourceAsStream("/data.json");
-        if (inputStream == null) {
-            throw new RuntimeException("data.json file not found in resources.");
+        long start = System.nanoTime();
+        long fireStations = 0;
+        long persons = 0;
+        try (InputStream inputStream = location.getInputStream();
+             JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException(location.getDescription() + " is not a JSON object.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+                switch (section) {
+                    case "firestations" -> fireStations += loadArray(parser, FireStationMapping.class,
+                            record -> withHousehold(record.toEntity()), fireStationRepository::saveAll);
+                    case "persons" -> persons += loadArray(parser, Person.class,
+                            this::withHousehold, personRepository::saveAll);
+                    default -> parser.skipChildren();
+                }
+            }
         }
 
-        Map<String, List<Map<String, Object>>> data = mapper.readValue(inputStream, typeRef);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long rows = fireStations + persons + households.size();
+        logger.info("Data loading completed successfully: {} fire stations, {} persons and {} households in {} ms ({} rows/sec).",
+                fireStations, persons, households.size(), elapsedMillis, rows * 1000 / elapsedMillis);
+        households.clear();
+    }
 
-        // Load fire stations
-        List<Map<String, Object>> fireStations = data.get("firestations");
-        for (Map<String, Object> fsMap : fireStations) {
-            FireStation fs = new FireStation();
-            fs.setAddress((String) fsMap.get("address"));
-            fs.setStationNumber((Integer) fsMap.get("station"));
-            fireStationRepository.save(fs);
+    /**
+     * Reads the array the parser is positioned on and saves its elements in chunks.
+     *
+     * @return the number of records saved
+     */
+    private <R, E> long loadArray(JsonParser parser, Class<R> recordType, Function<R, E> toEntity,
+                                  Consumer<List<E>> saveChunk) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
         }
-
-        // Load persons
-        List<Map<String, Object>> persons = data.get("persons");
-        for (Map<String, Object> personMap : persons) {
-            Person person = new Person();
-            person.setFirstName((String) personMap.get("firstName"));
-            person.setLastName((String) personMap.get("lastName"));
-            person.setAddress((String) personMap.get("address"));
-            person.setCity((String) personMap.get("city"));
-            person.setPhone((String) personMap.get("phone"));
-            person.setEmail((String) personMap.get("email"));
-            person.setAge((Integer) personMap.get("age"));
-            person.setMedications((List<String>) personMap.get("medications"));
-            person.setAllergies((List<String>) personMap.get("allergies"));
-            personRepository.save(person);
+        long count = 0;
+        List<E> chunk = new ArrayList<>(chunkSize);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            chunk.add(toEntity.apply(mapper.readValue(parser, recordType)));
+            if (chunk.size() >= chunkSize) {
+                saveHouseholds();
+                saveChunk.accept(chunk);
+                count += chunk.size();
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveHouseholds();
+            saveChunk.accept(chunk);
+            count += chunk.size();
         }
+        return count;
+    }
+
+    private FireStation withHousehold(FireStation fireStation) {
+        fireStation.setHousehold(household(fireStation.getAddress()));
+        return fireStation;
+    }
 
-        System.out.println("Data loading completed successfully.");
+    private Person withHousehold(Person person) {
+        person.setHousehold(household(person.getAddress()));
+        return person;
+    }
+
+    /**
+     * Returns the household of an address, creating it on first use.
+     */
+    private Household household(String address) {
+        return households.computeIfAbsent(address, key -> {
+            Household household = new Household(key);
+            unsavedHouseholds.add(household);
+            return household;
+        });
+    }
+
+    private void saveHouseholds() {
+        if (!unsavedHouseholds.isEmpty()) {
+            householdRepository.saveAll(unsavedHouseholds);
+            unsavedHouseholds.clear();
+        }
     }
 }
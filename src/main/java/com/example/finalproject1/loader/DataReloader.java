@@ -0,0 +1,288 @@
+package com.example.finalproject1.loader;
+
+import com.example.finalproject1.dto.FireStationMapping;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Household;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import com.example.finalproject1.service.DataWriteService;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Brings the database in line with a data file by applying only the differences. Persons are matched
+ * by first and last name, and among persons sharing a name by content; fire station mappings by address
+ * and station number. Unchanged rows are not written.
+ * <p>
+ * The database is read in keyset pages of {@code alerts.writes.chunk-size} rows, keeping only the ids of
+ * the persons that differ, so the whole table is never held. The diff is then applied in one transaction,
+ * flushed and cleared after each chunk. Until it commits, readers keep seeing the previous data, and
+ * caches and the AlertIndex only follow the change events once it has committed; a failure rolls it back.
+ */
+@Component
+public class DataReloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataReloader.class);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FireStationRepository fireStationRepository;
+
+    @Autowired
+    private DataWriteService dataWriteService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${alerts.writes.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Reads the data file and applies what differs from the database.
+     *
+     * @param file the data file, in the format of data.json
+     * @return what was changed
+     * @throws IOException if the file cannot be read, parsed or is empty; nothing is changed then
+     */
+    public Diff reload(Path file) throws IOException {
+        long start = System.nanoTime();
+        DataFile data = mapper.readValue(file.toFile(), DataFile.class);
+        if (data.persons().isEmpty() && data.firestations().isEmpty()) {
+            // More likely a file caught mid-write than a wish to delete everything
+            throw new IOException(file + " contains no persons and no fire stations; not applied");
+        }
+        Diff diff = apply(data);
+        logger.info("Reloaded {} in {} ms: {}", file, (System.nanoTime() - start) / 1_000_000, diff);
+        return diff;
+    }
+
+    private Diff apply(DataFile data) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Names are not unique in the data set: persons are compared within groups of the same name
+        Map<String, List<Person>> wanted = new LinkedHashMap<>();
+        for (Person person : data.persons()) {
+            if (person.getFirstName() != null && person.getLastName() != null) {
+                wanted.computeIfAbsent(nameOf(person), name -> new ArrayList<>()).add(person);
+            }
+        }
+
+        // Identical records are left alone; only the ids of the other persons are kept, by name in id order
+        Map<String, List<Long>> stale = new LinkedHashMap<>();
+        long after = 0L;
+        List<Long> page;
+        do {
+            long from = after;
+            page = readOnly.execute(status -> {
+                List<Long> ids = new ArrayList<>();
+                for (Person person : personRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(chunkSize))) {
+                    ids.add(person.getId());
+                    if (!removeIdentical(wanted.get(nameOf(person)), person)) {
+                        stale.computeIfAbsent(nameOf(person), name -> new ArrayList<>()).add(person.getId());
+                    }
+                }
+                return ids;
+            });
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == chunkSize);
+
+        // The remaining records are paired up with the remaining persons of their name in file order
+        List<PersonWrite> writes = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        int inserted = 0;
+        for (Map.Entry<String, List<Person>> entry : wanted.entrySet()) {
+            List<Person> rows = entry.getValue();
+            List<Long> ids = stale.getOrDefault(entry.getKey(), List.of());
+            for (int i = 0; i < rows.size(); i++) {
+                writes.add(new PersonWrite(i < ids.size() ? ids.get(i) : null, rows.get(i)));
+                if (i >= ids.size()) {
+                    inserted++;
+                }
+            }
+            for (int i = rows.size(); i < ids.size(); i++) {
+                removed.add(ids.get(i));
+            }
+            stale.remove(entry.getKey());
+        }
+        stale.values().forEach(removed::addAll);
+
+        Set<FireStationMapping> wantedMappings = new LinkedHashSet<>();
+        for (FireStationMapping mapping : data.firestations()) {
+            if (mapping.address() != null) {
+                wantedMappings.add(mapping);
+            }
+        }
+        List<Long> removedStations = new ArrayList<>();
+        after = 0L;
+        List<FireStation> stationPage;
+        do {
+            long from = after;
+            stationPage = readOnly.execute(status ->
+                    fireStationRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(chunkSize)));
+            for (FireStation fireStation : stationPage) {
+                if (!wantedMappings.remove(new FireStationMapping(fireStation.getAddress(), fireStation.getStationNumber()))) {
+                    removedStations.add(fireStation.getId());
+                }
+                after = fireStation.getId();
+            }
+        } while (stationPage.size() == chunkSize);
+
+        int stationsInserted = new TransactionTemplate(transactionManager).execute(status -> {
+            for (List<Long> chunk : chunks(removed)) {
+                personRepository.deleteAll(personRepository.findAllById(chunk));
+                flushChunk();
+            }
+            for (List<PersonWrite> chunk : chunks(writes)) {
+                write(chunk);
+                flushChunk();
+            }
+            for (List<Long> chunk : chunks(removedStations)) {
+                fireStationRepository.deleteAll(fireStationRepository.findAllById(chunk));
+                flushChunk();
+            }
+            int count = 0;
+            for (List<FireStationMapping> chunk : chunks(new ArrayList<>(wantedMappings))) {
+                count += dataWriteService.upsertFireStations(chunk);
+                flushChunk();
+            }
+            return count;
+        });
+
+        return new Diff(inserted, writes.size() - inserted, removed.size(), stationsInserted, removedStations.size());
+    }
+
+    // The transaction outlives the chunk: keep its persistence context from growing
+    private void flushChunk() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Updates the paired persons and inserts the others, with their households
+    private void write(List<PersonWrite> chunk) {
+        List<Long> ids = new ArrayList<>();
+        Set<String> addresses = new HashSet<>();
+        for (PersonWrite write : chunk) {
+            if (write.id() != null) {
+                ids.add(write.id());
+            }
+            addresses.add(write.row().getAddress());
+        }
+        Map<Long, Person> persons = new HashMap<>();
+        personRepository.findAllById(ids).forEach(person -> persons.put(person.getId(), person));
+        Map<String, Household> households = dataWriteService.households(addresses);
+        List<Person> written = new ArrayList<>(chunk.size());
+        for (PersonWrite write : chunk) {
+            Person person = write.id() == null ? null : persons.get(write.id());
+            if (person == null) {
+                person = write.row();
+                person.setId(null);
+            } else {
+                copy(write.row(), person);
+            }
+            person.setHousehold(households.get(person.getAddress()));
+            written.add(person);
+        }
+        personRepository.saveAll(written);
+    }
+
+    private static boolean changed(Person current, Person row) {
+        return !Objects.equals(current.getAddress(), row.getAddress())
+                || !Objects.equals(current.getCity(), row.getCity())
+                || !Objects.equals(current.getPhone(), row.getPhone())
+                || !Objects.equals(current.getEmail(), row.getEmail())
+                || !Objects.equals(current.getAge(), row.getAge())
+                || !listOf(current.getMedications()).equals(listOf(row.getMedications()))
+                || !listOf(current.getAllergies()).equals(listOf(row.getAllergies()));
+    }
+
+    private static void copy(Person row, Person person) {
+        person.setAddress(row.getAddress());
+        person.setCity(row.getCity());
+        person.setPhone(row.getPhone());
+        person.setEmail(row.getEmail());
+        person.setAge(row.getAge());
+        person.setMedications(row.getMedications());
+        person.setAllergies(row.getAllergies());
+    }
+
+    // Hibernate's bag compares by identity: copy before comparing contents
+    private static List<String> listOf(List<String> values) {
+        return values == null ? List.of() : new ArrayList<>(values);
+    }
+
+    private <T> List<List<T>> chunks(List<T> rows) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += chunkSize) {
+            chunks.add(rows.subList(i, Math.min(rows.size(), i + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private static String nameOf(Person person) {
+        return person.getFirstName() + '\u0000' + person.getLastName();
+    }
+
+    // Removes the first record identical to the person, if any
+    private static boolean removeIdentical(List<Person> rows, Person person) {
+        if (rows == null) {
+            return false;
+        }
+        for (Iterator<Person> candidates = rows.iterator(); candidates.hasNext(); ) {
+            if (!changed(person, candidates.next())) {
+                candidates.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A record of the file and the id of the person it updates, or null if it is inserted.
+     */
+    private record PersonWrite(Long id, Person row) {
+    }
+
+    /**
+     * Changes applied by a reload.
+     */
+    public record Diff(int personsInserted, int personsUpdated, int personsDeleted,
+                       int fireStationsInserted, int fireStationsDeleted) {
+    }
+
+    /**
+     * The data file, as far as a reload reads it.
+     */
+    record DataFile(List<Person> persons, List<FireStationMapping> firestations) {
+
+        DataFile {
+            persons = persons == null ? List.of() : persons;
+            firestations = firestations == null ? List.of() : firestations;
+        }
+    }
+}
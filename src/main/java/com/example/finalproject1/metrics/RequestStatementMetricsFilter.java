@@ -0,0 +1,91 @@
+package com.example.finalproject1.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how many SQL statements each request caused, per URI pattern, as the
+ * {@code alerts.request.statements} distribution summary. Lazy loads during JSON serialization
+ * happen inside the filter chain and are counted too.
+ * <p>
+ * A streamed response is written on another thread after the filter chain returned: its statements
+ * are counted through {@link StatementCounter#propagate}, and the request is recorded once the async
+ * request completes.
+ */
+public class RequestStatementMetricsFilter extends OncePerRequestFilter {
+
+    private static final String COUNTER_ATTRIBUTE = RequestStatementMetricsFilter.class.getName() + ".counter";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestStatementMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // The async dispatch that completes a streamed response counts into the same counter
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicLong counter = (AtomicLong) request.getAttribute(COUNTER_ATTRIBUTE);
+        boolean initial = counter == null;
+        if (initial) {
+            counter = new AtomicLong();
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        }
+        AtomicLong previous = StatementCounter.bind(counter);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementCounter.bind(previous);
+            if (initial && request.isAsyncStarted()) {
+                AtomicLong statements = counter;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, statements.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else if (initial) {
+                record(request, counter.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, long statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("alerts.request.statements")
+                .description("SQL statements prepared while handling a request")
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.finalproject1.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hibernate statement inspector that counts the SQL statements prepared on behalf of a request.
+ * <p>
+ * The counter is bound to the thread serving the request, and carried with {@link #propagate} to the
+ * tasks it hands to other threads: the body of a streamed response, or the flood executor's queries.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<AtomicLong> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicLong counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+
+    /**
+     * Counts the statements of the current thread into a counter, or stops counting them if it is null.
+     *
+     * @return the counter bound before, to be restored with another call
+     */
+    public static AtomicLong bind(AtomicLong counter) {
+        AtomicLong previous = CURRENT.get();
+        if (counter == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(counter);
+        }
+        return previous;
+    }
+
+    /**
+     * @return the task, counting its statements into the counter of the current thread, if any
+     */
+    public static Runnable propagate(Runnable task) {
+        AtomicLong counter = CURRENT.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            AtomicLong previous = bind(counter);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    /**
+     * @return the task, counting its statements into the counter of the current thread, if any
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        AtomicLong counter = CURRENT.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            AtomicLong previous = bind(counter);
+            try {
+                return task.call();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+}
@@ -1,18 +1,34 @@
 package com.example.finalproject1.model;
 
+import com.example.finalproject1.event.EntityChangePublisher;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 
 @Entity
+@Table(name = "fire_station", indexes = {
+        // One index per FireStationRepository finder
+        @Index(name = "idx_fire_station_number", columnList = "stationNumber"),
+        @Index(name = "idx_fire_station_address", columnList = "address"),
+        @Index(name = "idx_fire_station_household", columnList = "household_id")
+})
+@EntityListeners(EntityChangePublisher.class)
 
 public class FireStation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fire_station_seq")
+    @SequenceGenerator(name = "fire_station_seq", sequenceName = "fire_station_seq", allocationSize = 50)
     private Long id;
 
     private String address;
 
+    // Normalized address; the address column is kept for lookups by address
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "household_id")
+    @JsonIgnore
+    private Household household;
+
     public Long getId() {
         return id;
     }
@@ -29,6 +45,14 @@ public class FireStation {
         this.address = address;
     }
 
+    public Household getHousehold() {
+        return household;
+    }
+
+    public void setHousehold(Household household) {
+        this.household = household;
+    }
+
     public int getStationNumber() {
         return stationNumber;
     }
@@ -38,5 +62,31 @@ public class FireStation {
     }
 
     private int stationNumber;
+
+    // Address and station number as last read from or written to the database
+    @Transient
+    private String persistedAddress;
+
+    @Transient
+    private Integer persistedStationNumber;
+
+    @JsonIgnore
+    public String getPersistedAddress() {
+        return persistedAddress;
+    }
+
+    @JsonIgnore
+    public Integer getPersistedStationNumber() {
+        return persistedStationNumber;
+    }
+
+    // Runs after EntityChangePublisher, which still sees the previous values
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedState() {
+        this.persistedAddress = address;
+        this.persistedStationNumber = stationNumber;
+    }
 }
 
@@ -0,0 +1,45 @@
+package com.example.finalproject1.model;
+
+import jakarta.persistence.*;
+
+/**
+ * An address, shared by the persons living there and the fire stations covering it. Persons and
+ * fire stations reference it by id, so station to person lookups join on integer keys.
+ */
+@Entity
+@Table(name = "household", indexes = {
+        @Index(name = "idx_household_address", columnList = "address", unique = true)
+})
+public class Household {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "household_seq")
+    @SequenceGenerator(name = "household_seq", sequenceName = "household_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String address;
+
+    public Household() {
+    }
+
+    public Household(String address) {
+        this.address = address;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.finalproject1.model;
 
+import com.example.finalproject1.event.EntityChangePublisher;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
 import java.util.List;
 
 @Entity
-@Table(name = "person")
+@Table(name = "person", indexes = {
+        // One index per PersonRepository finder
+        @Index(name = "idx_person_address", columnList = "address"),
+        // city, id also serves the keyset pages of a city in id order
+        @Index(name = "idx_person_city", columnList = "city, id"),
+        @Index(name = "idx_person_name", columnList = "lastName, firstName"),
+        @Index(name = "idx_person_household", columnList = "household_id")
+})
+@EntityListeners(EntityChangePublisher.class)
 public class Person {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 50)
     private Long id; // Ensure this field exists
 
     private String firstName;
@@ -19,16 +33,34 @@ public class Person {
     private String email;
     private Integer age; // Ensure this field exists
 
+    // Normalized address; the address column is kept for lookups by address and for the API
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "household_id")
+    @JsonIgnore
+    private Household household;
+
+    // SUBSELECT loads the collection for every person of the originating query at once,
+    // instead of one SELECT per person when a result list is serialized.
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "person_medications", joinColumns = @JoinColumn(name = "person_id"))
     @Column(name = "medication")
     private List<String> medications;
 
     @ElementCollection
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "person_allergies", joinColumns = @JoinColumn(name = "person_id"))
     @Column(name = "allergy")
     private List<String> allergies;
 
+    // Address and city as last read from or written to the database, so a change event can
+    // name the lookups that went stale when a person moves
+    @Transient
+    private String persistedAddress;
+
+    @Transient
+    private String persistedCity;
+
     // **Constructors**
 
     public Person() {
@@ -81,6 +113,14 @@ public class Person {
         this.address = address;
     }
 
+    public Household getHousehold() {
+        return household;
+    }
+
+    public void setHousehold(Household household) {
+        this.household = household;
+    }
+
     public String getCity() {
         return city;
     }
@@ -129,6 +169,25 @@ public class Person {
         this.allergies = allergies;
     }
 
+    @JsonIgnore
+    public String getPersistedAddress() {
+        return persistedAddress;
+    }
+
+    @JsonIgnore
+    public String getPersistedCity() {
+        return persistedCity;
+    }
+
+    // Runs after EntityChangePublisher, which still sees the previous values
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedState() {
+        this.persistedAddress = address;
+        this.persistedCity = city;
+    }
+
     // **toString(), equals(), and hashCode() Methods** (Optional)
 
     @Override
@@ -0,0 +1,20 @@
+package com.example.finalproject1.notification;
+
+/**
+ * Outcome of one dispatch.
+ *
+ * @param channel            the channel notified
+ * @param recipients         distinct recipients read from the repositories
+ * @param delivered          notifications the sender accepted
+ * @param failed             notifications still failing after the last retry
+ * @param batches            batches handed to the sender, retries excluded
+ * @param retries            batch sends retried after a failure
+ * @param elapsedMillis      time from the first recipient read to the last batch sent
+ * @param throughput         delivered notifications per second
+ * @param meanLatencyMillis  mean time from a recipient being queued to its delivery
+ * @param maxLatencyMillis   longest time from a recipient being queued to its delivery
+ */
+public record DispatchReport(NotificationChannel channel, long recipients, long delivered, long failed,
+                             long batches, long retries, long elapsedMillis, double throughput,
+                             double meanLatencyMillis, double maxLatencyMillis) {
+}
@@ -0,0 +1,12 @@
+package com.example.finalproject1.notification;
+
+/**
+ * One message to one recipient.
+ *
+ * @param channel       the channel to deliver it through
+ * @param recipient     phone number or email address
+ * @param message       the text to send
+ * @param enqueuedNanos {@link System#nanoTime()} when the recipient was queued, for the delivery latency
+ */
+public record Notification(NotificationChannel channel, String recipient, String message, long enqueuedNanos) {
+}
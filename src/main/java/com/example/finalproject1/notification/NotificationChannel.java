@@ -0,0 +1,9 @@
+package com.example.finalproject1.notification;
+
+/**
+ * Medium a notification is delivered through.
+ */
+public enum NotificationChannel {
+    SMS,
+    EMAIL
+}
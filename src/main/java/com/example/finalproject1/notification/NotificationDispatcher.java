@@ -0,0 +1,313 @@
+package com.example.finalproject1.notification;
+
+import com.example.finalproject1.service.AlertsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Sends a message to every phone number of a fire station's jurisdiction or every email address of a city.
+ * <p>
+ * Dispatches run asynchronously, at most {@code alerts.notifications.concurrent-dispatches} at a time.
+ * Recipients are read in keyset pages of distinct values, each page in its own short transaction, into
+ * a bounded queue: when the senders fall behind, the queue fills up and reading pauses without holding
+ * a connection, so memory use does not depend on the number of recipients.
+ * Worker threads take batches off the queue and hand them to the {@link NotificationSender} of the
+ * channel, at most at the channel's rate limit, retrying failed batches with exponential backoff.
+ * Every dispatch completes with a {@link DispatchReport}; delivery latency and outcomes are also
+ * recorded as the {@code alerts.notifications.latency} timer and {@code alerts.notifications} counter.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final int PAGE_SIZE = 1000;
+    // Dispatches accepted while others run; beyond this, new ones are rejected
+    private static final int MAX_PENDING_DISPATCHES = 100;
+
+    @Autowired
+    private AlertsService alertsService;
+
+    @Autowired
+    private List<NotificationSender> senders;
+
+    @Value("${alerts.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${alerts.notifications.batch-size:100}")
+    private int batchSize;
+
+    @Value("${alerts.notifications.workers:4}")
+    private int workers;
+
+    @Value("${alerts.notifications.concurrent-dispatches:2}")
+    private int concurrentDispatches;
+
+    @Value("${alerts.notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${alerts.notifications.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    @Value("${alerts.notifications.rate.sms:100}")
+    private double smsRate;
+
+    @Value("${alerts.notifications.rate.email:1000}")
+    private double emailRate;
+
+    // Shared by concurrent dispatches: the limit is the provider's, not one dispatch's
+    private final Map<NotificationChannel, RateLimiter> rateLimiters = new EnumMap<>(NotificationChannel.class);
+
+    // Reads the recipients of each dispatch
+    private ExecutorService dispatchExecutor;
+
+    // Drains the queues; sized so that every running dispatch has all its workers
+    private ExecutorService workerExecutor;
+
+    @PostConstruct
+    void start() {
+        rateLimiters.put(NotificationChannel.SMS, new RateLimiter(smsRate));
+        rateLimiters.put(NotificationChannel.EMAIL, new RateLimiter(emailRate));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrentDispatches, concurrentDispatches,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_PENDING_DISPATCHES),
+                new CustomizableThreadFactory("notification-dispatch-"));
+        executor.allowCoreThreadTimeOut(true);
+        dispatchExecutor = executor;
+        workerExecutor = Executors.newFixedThreadPool(concurrentDispatches * workers,
+                new CustomizableThreadFactory("notification-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatchExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+    }
+
+    /**
+     * Sends an SMS to every phone number within the jurisdiction of a fire station.
+     *
+     * @param stationNumber the fire station number
+     * @param message       the text to send
+     * @return the outcome, completed once every recipient was delivered or given up on
+     * @throws RejectedExecutionException if too many dispatches are already pending
+     */
+    public CompletableFuture<DispatchReport> notifyFireStation(int stationNumber, String message) {
+        logger.info("Dispatching SMS to fire station number: {}", stationNumber);
+        return CompletableFuture.supplyAsync(() -> dispatch(NotificationChannel.SMS, message,
+                (after, limit) -> alertsService.getDistinctPhoneNumbersPage(stationNumber, after, limit)),
+                dispatchExecutor);
+    }
+
+    /**
+     * Sends an email to every email address of a city.
+     *
+     * @param city    the city
+     * @param message the text to send
+     * @return the outcome, completed once every recipient was delivered or given up on
+     * @throws RejectedExecutionException if too many dispatches are already pending
+     */
+    public CompletableFuture<DispatchReport> notifyCity(String city, String message) {
+        logger.info("Dispatching email to city: {}", city);
+        return CompletableFuture.supplyAsync(() -> dispatch(NotificationChannel.EMAIL, message,
+                (after, limit) -> alertsService.getDistinctCommunityEmailsPage(city, after, limit)),
+                dispatchExecutor);
+    }
+
+    /**
+     * @param pages reads the page of distinct recipients after the given one, of at most the given size
+     */
+    private DispatchReport dispatch(NotificationChannel channel, String message,
+                                    BiFunction<String, Integer, List<String>> pages) {
+        NotificationSender sender = senders.stream()
+                .filter(candidate -> candidate.supports(channel))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No notification sender for channel " + channel));
+        Dispatch dispatch = new Dispatch(channel, message, sender);
+
+        List<Future<?>> consumers = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            consumers.add(workerExecutor.submit(dispatch::drain));
+        }
+        try {
+            // The page is read before its recipients are queued: waiting for the queue holds no transaction
+            String after = "";
+            List<String> page;
+            do {
+                page = pages.apply(after, PAGE_SIZE);
+                page.forEach(dispatch::enqueue);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == PAGE_SIZE);
+        } finally {
+            dispatch.producing = false;
+        }
+        try {
+            for (Future<?> consumer : consumers) {
+                consumer.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching " + channel + " notifications", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to dispatch " + channel + " notifications", e.getCause());
+        }
+
+        DispatchReport report = dispatch.report();
+        logger.info("Dispatched {} {} notifications: {} delivered, {} failed, {}/s, mean latency {} ms",
+                report.recipients(), channel, report.delivered(), report.failed(),
+                Math.round(report.throughput()), Math.round(report.meanLatencyMillis()));
+        return report;
+    }
+
+    /**
+     * State of one dispatch: its queue, read by the calling thread and drained by the workers.
+     */
+    private final class Dispatch {
+
+        private final NotificationChannel channel;
+        private final String message;
+        private final NotificationSender sender;
+        private final RateLimiter rateLimiter;
+        private final BlockingQueue<Notification> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final long startNanos = System.nanoTime();
+
+        // Only touched by the thread reading the recipients
+        private long recipients;
+
+        private volatile boolean producing = true;
+        private volatile boolean aborted;
+
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0);
+
+        private final Timer latency;
+        private final Counter deliveredCounter;
+        private final Counter failedCounter;
+
+        Dispatch(NotificationChannel channel, String message, NotificationSender sender) {
+            this.channel = channel;
+            this.message = message;
+            this.sender = sender;
+            this.rateLimiter = rateLimiters.get(channel);
+            String tag = channel.name().toLowerCase(Locale.ROOT);
+            this.latency = Timer.builder("alerts.notifications.latency")
+                    .description("Time from a recipient being queued to its notification being delivered")
+                    .tag("channel", tag)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+            this.deliveredCounter = Metrics.counter("alerts.notifications", "channel", tag, "outcome", "delivered");
+            this.failedCounter = Metrics.counter("alerts.notifications", "channel", tag, "outcome", "failed");
+        }
+
+        /**
+         * Queues a recipient, waiting while the queue is full. Blanks are skipped; the pages hold no duplicates.
+         */
+        void enqueue(String recipient) {
+            if (recipient == null || recipient.isBlank()) {
+                return;
+            }
+            recipients++;
+            Notification notification = new Notification(channel, recipient, message, System.nanoTime());
+            try {
+                while (!queue.offer(notification, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (aborted) {
+                        throw new IllegalStateException("Dispatch of " + channel + " notifications was aborted");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing " + channel + " notifications", e);
+            }
+        }
+
+        /**
+         * Sends batches until the recipients are read and the queue is empty. A batch holds whatever
+         * is queued up to the batch size, so a slow reader does not delay delivery.
+         */
+        void drain() {
+            List<Notification> batch = new ArrayList<>(batchSize);
+            try {
+                while (producing || !queue.isEmpty()) {
+                    Notification first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    deliver(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void deliver(List<Notification> batch) throws InterruptedException {
+            batches.increment();
+            for (int attempt = 1; ; attempt++) {
+                rateLimiter.acquire(batch.size());
+                try {
+                    sender.send(batch);
+                    break;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        logger.warn("Giving up on {} {} notifications after {} attempts",
+                                batch.size(), channel, attempt, e);
+                        failed.add(batch.size());
+                        failedCounter.increment(batch.size());
+                        return;
+                    }
+                    logger.debug("Retrying {} {} notifications after attempt {} failed: {}",
+                            batch.size(), channel, attempt, e.getMessage());
+                    retries.increment();
+                    Thread.sleep(retryBackoff.toMillis() << (attempt - 1));
+                }
+            }
+
+            long now = System.nanoTime();
+            for (Notification notification : batch) {
+                long nanos = now - notification.enqueuedNanos();
+                latencyNanos.add(nanos);
+                maxLatencyNanos.accumulate(nanos);
+                latency.record(nanos, TimeUnit.NANOSECONDS);
+            }
+            delivered.add(batch.size());
+            deliveredCounter.increment(batch.size());
+        }
+
+        DispatchReport report() {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long deliveredCount = delivered.sum();
+            return new DispatchReport(channel, recipients, deliveredCount, failed.sum(), batches.sum(),
+                    retries.sum(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    elapsedNanos > 0 ? deliveredCount * 1e9 / elapsedNanos : 0,
+                    deliveredCount > 0 ? latencyNanos.sum() / 1e6 / deliveredCount : 0,
+                    maxLatencyNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.finalproject1.notification;
+
+import java.util.List;
+
+/**
+ * Adapter to an SMS or email provider. Receives notifications in batches so that providers with
+ * bulk APIs can send each batch in one call.
+ */
+public interface NotificationSender {
+
+    /**
+     * @return whether this sender delivers notifications of the given channel
+     */
+    boolean supports(NotificationChannel channel);
+
+    /**
+     * Delivers a batch of notifications of one channel. Throwing fails the whole batch, which the
+     * dispatcher then retries.
+     *
+     * @param batch the notifications, all of the same channel
+     * @throws Exception if the batch could not be delivered
+     */
+    void send(List<Notification> batch) throws Exception;
+}
@@ -0,0 +1,39 @@
+package com.example.finalproject1.notification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces permits evenly at a fixed rate, shared by all threads sending through one channel.
+ * Each caller reserves its permits and then sleeps until they are due, so the lock is never held
+ * while waiting.
+ */
+final class RateLimiter {
+
+    private final long nanosPerPermit;
+    private long nextFreeNanos = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond maximum rate; zero or less means unlimited
+     */
+    RateLimiter(double permitsPerSecond) {
+        this.nanosPerPermit = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        if (nanosPerPermit == 0) {
+            return;
+        }
+        long waitNanos = reserve(permits) - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        // Unused capacity does not accumulate: an idle channel does not get a burst afterwards
+        long start = Math.max(nextFreeNanos, now);
+        nextFreeNanos = start + permits * nanosPerPermit;
+        return start;
+    }
+}
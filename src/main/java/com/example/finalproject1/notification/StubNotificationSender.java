@@ -0,0 +1,58 @@
+package com.example.finalproject1.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local sender used until a provider is configured: logs and counts the notifications instead of
+ * sending them, optionally waiting {@code alerts.notifications.stub.latency} per batch to simulate a
+ * provider call.
+ */
+@Component
+@ConditionalOnProperty(name = "alerts.notifications.sender", havingValue = "stub", matchIfMissing = true)
+public class StubNotificationSender implements NotificationSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubNotificationSender.class);
+
+    private final Map<NotificationChannel, LongAdder> sent = new EnumMap<>(NotificationChannel.class);
+
+    @Value("${alerts.notifications.stub.latency:0ms}")
+    private Duration latency = Duration.ZERO;
+
+    public StubNotificationSender() {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            sent.put(channel, new LongAdder());
+        }
+    }
+
+    @Override
+    public boolean supports(NotificationChannel channel) {
+        return true;
+    }
+
+    @Override
+    public void send(List<Notification> batch) throws InterruptedException {
+        if (!latency.isZero()) {
+            Thread.sleep(latency.toMillis());
+        }
+        NotificationChannel channel = batch.get(0).channel();
+        sent.get(channel).add(batch.size());
+        logger.debug("Stub sent {} {} notifications", batch.size(), channel);
+    }
+
+    /**
+     * @return the number of notifications sent through the channel so far
+     */
+    public long sent(NotificationChannel channel) {
+        return sent.get(channel).sum();
+    }
+}
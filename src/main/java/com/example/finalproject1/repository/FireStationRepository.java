@@ -1,14 +1,35 @@
 package com.example.finalproject1.repository;
 
+import com.example.finalproject1.dto.StationCoverage;
 import com.example.finalproject1.model.FireStation;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.Collection;
 import java.util.List;
 
-@Repository
-public interface FireStationRepository extends JpaRepository<FireStation, Long> {
+/**
+ * Fire station mappings, independent of the storage backend: implemented by
+ * {@link com.example.finalproject1.repository.jpa.JpaFireStationRepository} by default and by
+ * {@link com.example.finalproject1.repository.memory.InMemoryFireStationRepository} with the in-memory profile.
+ */
+@NoRepositoryBean
+public interface FireStationRepository extends ListCrudRepository<FireStation, Long> {
     List<FireStation> findByStationNumber(int stationNumber);
     List<FireStation> findByAddress(String address);
+    List<FireStation> findByAddressIn(Collection<String> addresses);
     List<FireStation> findByStationNumberIn(List<Integer> stationNumbers);
+
+    // Distinct (station number, household id) pairs
+    List<StationCoverage> findCoverageByStationNumberIn(Collection<Integer> stationNumbers);
+
+    // Distinct station numbers
+    List<Integer> findStationNumbersByAddressIn(Collection<String> addresses);
+
+    // Keyset page of the distinct ids of the households the stations cover, after the given id, in id order
+    List<Long> findHouseholdIdPageByStationNumberIn(Collection<Integer> stationNumbers, Long after, Limit limit);
+
+    // Keyset pages: rows after the given id, in id order
+    List<FireStation> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,20 @@
+package com.example.finalproject1.repository;
+
+import com.example.finalproject1.model.Household;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Households, independent of the storage backend: implemented by
+ * {@link com.example.finalproject1.repository.jpa.JpaHouseholdRepository} by default and by
+ * {@link com.example.finalproject1.repository.memory.InMemoryHouseholdRepository} with the in-memory profile.
+ */
+@NoRepositoryBean
+public interface HouseholdRepository extends ListCrudRepository<Household, Long> {
+    Optional<Household> findByAddress(String address);
+    List<Household> findByAddressIn(Collection<String> addresses);
+}
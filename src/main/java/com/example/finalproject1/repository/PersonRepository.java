@@ -1,15 +1,63 @@
 package com.example.finalproject1.repository;
 
+import com.example.finalproject1.dto.AddressedResident;
+import com.example.finalproject1.dto.PersonEmail;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationHeadcount;
 import com.example.finalproject1.model.Person;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.Collection;
 import java.util.List;
 
-@Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+/**
+ * Persons, independent of the storage backend: implemented by
+ * {@link com.example.finalproject1.repository.jpa.JpaPersonRepository} by default and by
+ * {@link com.example.finalproject1.repository.memory.InMemoryPersonRepository} with the in-memory profile.
+ */
+@NoRepositoryBean
+public interface PersonRepository extends ListCrudRepository<Person, Long> {
     List<Person> findByAddressIn(List<String> addresses);
     List<Person> findByAddress(String address);
     List<Person> findByFirstNameAndLastName(String firstName, String lastName);
+    // Persons with one of the last names and one of the first names; callers match the exact pairs
+    List<Person> findByLastNameInAndFirstNameIn(Collection<String> lastNames, Collection<String> firstNames);
     List<Person> findByCity(String city);
+
+    // Persons of the households a station covers
+    List<Person> findByStationNumber(int stationNumber);
+
+    // Ordered by household id
+    List<Person> findByStationNumberIn(Collection<Integer> stationNumbers);
+
+    // Ordered by household id, then id
+    List<Person> findByHouseholdIdIn(Collection<Long> householdIds);
+
+    StationHeadcount countByStationNumber(int stationNumber);
+
+    List<String> findPhonesByStationNumber(int stationNumber);
+
+    // Non-empty emails, in person id order
+    List<String> findEmailsByCity(String city);
+
+    List<ResidentSummary> findResidentSummariesByAddress(String address);
+
+    List<AddressedResident> findResidentSummariesByAddressIn(Collection<String> addresses);
+
+    // /fire rows for the addresses: for each, the station covering it (the first one, if several do) with
+    // each resident and their medications, then again with their allergies. Columns: station number, id,
+    // first name, last name, address, city, phone, email, age, medication, allergy.
+    List<Object[]> findFireDetailRowsByAddressIn(Collection<String> addresses);
+
+    // Keyset pages: rows after the given id, in id order
+    List<Person> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<PersonEmail> findEmailPageByCity(String city, Long after, Limit limit);
+
+    // Keyset pages of distinct non-empty values: values after the given one, in value order
+    List<String> findDistinctPhonePageByStationNumber(int stationNumber, String after, Limit limit);
+
+    List<String> findDistinctEmailPageByCity(String city, String after, Limit limit);
 }
@@ -0,0 +1,35 @@
+package com.example.finalproject1.repository.jpa;
+
+import com.example.finalproject1.dto.StationCoverage;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.repository.FireStationRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link FireStationRepository} on JPA. The finders without a query here are derived from their names.
+ */
+@Repository
+public interface JpaFireStationRepository extends JpaRepository<FireStation, Long>, FireStationRepository {
+
+    @Override
+    @Query("select distinct new com.example.finalproject1.dto.StationCoverage(f.stationNumber, f.household.id) "
+            + "from FireStation f where f.stationNumber in :stationNumbers")
+    List<StationCoverage> findCoverageByStationNumberIn(@Param("stationNumbers") Collection<Integer> stationNumbers);
+
+    @Override
+    @Query("select distinct f.stationNumber from FireStation f where f.address in :addresses")
+    List<Integer> findStationNumbersByAddressIn(@Param("addresses") Collection<String> addresses);
+
+    @Override
+    @Query("select distinct f.household.id from FireStation f "
+            + "where f.stationNumber in :stationNumbers and f.household.id > :after order by f.household.id")
+    List<Long> findHouseholdIdPageByStationNumberIn(@Param("stationNumbers") Collection<Integer> stationNumbers,
+                                                    @Param("after") Long after, Limit limit);
+}
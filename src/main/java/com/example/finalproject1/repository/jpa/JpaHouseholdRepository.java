@@ -0,0 +1,13 @@
+package com.example.finalproject1.repository.jpa;
+
+import com.example.finalproject1.model.Household;
+import com.example.finalproject1.repository.HouseholdRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * {@link HouseholdRepository} on JPA, with finders derived from their names.
+ */
+@Repository
+public interface JpaHouseholdRepository extends JpaRepository<Household, Long>, HouseholdRepository {
+}
@@ -0,0 +1,98 @@
+package com.example.finalproject1.repository.jpa;
+
+import com.example.finalproject1.dto.AddressedResident;
+import com.example.finalproject1.dto.PersonEmail;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.PersonRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link PersonRepository} on JPA. The finders without a query here are derived from their names.
+ */
+@Repository
+public interface JpaPersonRepository extends JpaRepository<Person, Long>, PersonRepository {
+
+    // Station to persons through the household key, an integer join on indexed foreign keys
+    @Override
+    @Query("select p from Person p where p.household.id in "
+            + "(select f.household.id from FireStation f where f.stationNumber = :stationNumber)")
+    List<Person> findByStationNumber(@Param("stationNumber") int stationNumber);
+
+    @Override
+    @Query("select p from Person p where p.household.id in "
+            + "(select f.household.id from FireStation f where f.stationNumber in :stationNumbers) "
+            + "order by p.household.id")
+    List<Person> findByStationNumberIn(@Param("stationNumbers") Collection<Integer> stationNumbers);
+
+    @Override
+    @Query("select p from Person p where p.household.id in :householdIds order by p.household.id, p.id")
+    List<Person> findByHouseholdIdIn(@Param("householdIds") Collection<Long> householdIds);
+
+    @Override
+    @Query("select new com.example.finalproject1.dto.StationHeadcount("
+            + "coalesce(sum(case when p.age >= 18 then 1 else 0 end), 0L), "
+            + "coalesce(sum(case when p.age < 18 then 1 else 0 end), 0L)) "
+            + "from Person p where p.household.id in "
+            + "(select f.household.id from FireStation f where f.stationNumber = :stationNumber)")
+    StationHeadcount countByStationNumber(@Param("stationNumber") int stationNumber);
+
+    // Projections of exactly the columns an endpoint returns: no entities, no collections
+    @Override
+    @Query("select p.phone from Person p where p.household.id in "
+            + "(select f.household.id from FireStation f where f.stationNumber = :stationNumber)")
+    List<String> findPhonesByStationNumber(@Param("stationNumber") int stationNumber);
+
+    @Override
+    @Query("select p.email from Person p where p.city = :city and p.email <> '' order by p.id")
+    List<String> findEmailsByCity(@Param("city") String city);
+
+    @Override
+    @Query("select new com.example.finalproject1.dto.ResidentSummary(p.firstName, p.lastName, p.age) "
+            + "from Person p where p.address = :address")
+    List<ResidentSummary> findResidentSummariesByAddress(@Param("address") String address);
+
+    @Override
+    @Query("select new com.example.finalproject1.dto.AddressedResident(p.address, p.firstName, p.lastName, p.age) "
+            + "from Person p where p.address in :addresses")
+    List<AddressedResident> findResidentSummariesByAddressIn(@Param("addresses") Collection<String> addresses);
+
+    // /fire in one round trip. Two branches instead of joining both collections, so that medications
+    // are not repeated once per allergy.
+    @Override
+    @Query("select f.stationNumber, p.id, p.firstName, p.lastName, p.address, p.city, p.phone, p.email, p.age, "
+            + "m, cast(null as String) "
+            + "from FireStation f join Person p on p.household = f.household left join p.medications m "
+            + "where f.id in (select min(s.id) from FireStation s where s.address in :addresses group by s.address) "
+            + "union all "
+            + "select f.stationNumber, p.id, p.firstName, p.lastName, p.address, p.city, p.phone, p.email, p.age, "
+            + "cast(null as String), a "
+            + "from FireStation f join Person p on p.household = f.household join p.allergies a "
+            + "where f.id in (select min(s.id) from FireStation s where s.address in :addresses group by s.address)")
+    List<Object[]> findFireDetailRowsByAddressIn(@Param("addresses") Collection<String> addresses);
+
+    @Override
+    @Query("select new com.example.finalproject1.dto.PersonEmail(p.id, p.email) from Person p "
+            + "where p.city = :city and p.id > :after and p.email <> '' order by p.id")
+    List<PersonEmail> findEmailPageByCity(@Param("city") String city, @Param("after") Long after, Limit limit);
+
+    // The value is its own cursor: "p.phone > ''" also skips empty phones on the first page
+    @Override
+    @Query("select distinct p.phone from Person p where p.household.id in "
+            + "(select f.household.id from FireStation f where f.stationNumber = :stationNumber) "
+            + "and p.phone > :after order by p.phone")
+    List<String> findDistinctPhonePageByStationNumber(@Param("stationNumber") int stationNumber,
+                                                      @Param("after") String after, Limit limit);
+
+    @Override
+    @Query("select distinct p.email from Person p where p.city = :city and p.email > :after order by p.email")
+    List<String> findDistinctEmailPageByCity(@Param("city") String city, @Param("after") String after, Limit limit);
+}
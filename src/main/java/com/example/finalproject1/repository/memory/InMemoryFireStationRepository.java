@@ -0,0 +1,131 @@
+package com.example.finalproject1.repository.memory;
+
+import com.example.finalproject1.dto.StationCoverage;
+import com.example.finalproject1.event.ChangeType;
+import com.example.finalproject1.event.FireStationChangedEvent;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.repository.FireStationRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * {@link FireStationRepository} held in memory, indexed by station number and address.
+ * Publishes a {@link FireStationChangedEvent} for every write, as the JPA entity listener does.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryFireStationRepository extends InMemoryRepository<FireStation> implements FireStationRepository {
+
+    private final SecondaryIndex<FireStation, Integer> byStationNumber =
+            new SecondaryIndex<>(FireStation::getStationNumber);
+    private final SecondaryIndex<FireStation, String> byAddress = new SecondaryIndex<>(FireStation::getAddress);
+
+    @Override
+    public List<FireStation> findByStationNumber(int stationNumber) {
+        return entitiesOf(byStationNumber.ids(stationNumber));
+    }
+
+    @Override
+    public List<FireStation> findByAddress(String address) {
+        return entitiesOf(byAddress.ids(address));
+    }
+
+    @Override
+    public List<FireStation> findByAddressIn(Collection<String> addresses) {
+        return entitiesOf(idsOf(byAddress, addresses));
+    }
+
+    @Override
+    public List<FireStation> findByStationNumberIn(List<Integer> stationNumbers) {
+        return entitiesOf(idsOf(byStationNumber, stationNumbers));
+    }
+
+    @Override
+    public List<StationCoverage> findCoverageByStationNumberIn(Collection<Integer> stationNumbers) {
+        Set<StationCoverage> coverage = new LinkedHashSet<>();
+        for (FireStation fireStation : entitiesOf(idsOf(byStationNumber, stationNumbers))) {
+            coverage.add(new StationCoverage(fireStation.getStationNumber(), householdIdOf(fireStation)));
+        }
+        return new ArrayList<>(coverage);
+    }
+
+    @Override
+    public List<Integer> findStationNumbersByAddressIn(Collection<String> addresses) {
+        Set<Integer> stationNumbers = new LinkedHashSet<>();
+        for (FireStation fireStation : entitiesOf(idsOf(byAddress, addresses))) {
+            stationNumbers.add(fireStation.getStationNumber());
+        }
+        return new ArrayList<>(stationNumbers);
+    }
+
+    @Override
+    public List<Long> findHouseholdIdPageByStationNumberIn(Collection<Integer> stationNumbers, Long after,
+                                                           Limit limit) {
+        return findHouseholdIdsByStationNumberIn(stationNumbers).tailSet(after, false).stream()
+                .limit(maxOf(limit))
+                .toList();
+    }
+
+    @Override
+    public List<FireStation> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return entities.tailMap(id, false).values().stream().limit(maxOf(limit)).toList();
+    }
+
+    /**
+     * @return the ids of the households the stations cover, in id order
+     */
+    public NavigableSet<Long> findHouseholdIdsByStationNumberIn(Collection<Integer> stationNumbers) {
+        NavigableSet<Long> householdIds = new TreeSet<>();
+        for (FireStation fireStation : entitiesOf(idsOf(byStationNumber, stationNumbers))) {
+            Long householdId = householdIdOf(fireStation);
+            if (householdId != null) {
+                householdIds.add(householdId);
+            }
+        }
+        return householdIds;
+    }
+
+    /**
+     * @return the mapping of an address with the lowest id, the one /fire reports, or null if none
+     */
+    public FireStation findFirstByAddress(String address) {
+        for (Long id : byAddress.ids(address)) {
+            FireStation fireStation = entities.get(id);
+            if (fireStation != null) {
+                return fireStation;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected Long idOf(FireStation fireStation) {
+        return fireStation.getId();
+    }
+
+    @Override
+    protected void assignId(FireStation fireStation, Long id) {
+        fireStation.setId(id);
+    }
+
+    @Override
+    protected void index(Long id, FireStation fireStation) {
+        String previousAddress = byAddress.put(id, fireStation);
+        Integer previousStationNumber = byStationNumber.put(id, fireStation);
+        publish(new FireStationChangedEvent(fireStation, ChangeType.SAVED, previousAddress, previousStationNumber));
+    }
+
+    @Override
+    protected void unindex(Long id, FireStation fireStation) {
+        String previousAddress = byAddress.remove(id);
+        Integer previousStationNumber = byStationNumber.remove(id);
+        publish(new FireStationChangedEvent(fireStation, ChangeType.DELETED, previousAddress, previousStationNumber));
+    }
+
+    private static Long householdIdOf(FireStation fireStation) {
+        return fireStation.getHousehold() == null ? null : fireStation.getHousehold().getId();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.finalproject1.repository.memory;
+
+import com.example.finalproject1.model.Household;
+import com.example.finalproject1.repository.HouseholdRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link HouseholdRepository} held in memory, indexed by address.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryHouseholdRepository extends InMemoryRepository<Household> implements HouseholdRepository {
+
+    private final SecondaryIndex<Household, String> byAddress = new SecondaryIndex<>(Household::getAddress);
+
+    @Override
+    public Optional<Household> findByAddress(String address) {
+        return entitiesOf(byAddress.ids(address)).stream().findFirst();
+    }
+
+    @Override
+    public List<Household> findByAddressIn(Collection<String> addresses) {
+        return entitiesOf(idsOf(byAddress, addresses));
+    }
+
+    @Override
+    protected Long idOf(Household household) {
+        return household.getId();
+    }
+
+    @Override
+    protected void assignId(Household household, Long id) {
+        household.setId(id);
+    }
+
+    @Override
+    protected void index(Long id, Household household) {
+        byAddress.put(id, household);
+    }
+
+    @Override
+    protected void unindex(Long id, Household household) {
+        byAddress.remove(id);
+    }
+}
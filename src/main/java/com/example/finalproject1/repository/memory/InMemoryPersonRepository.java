@@ -0,0 +1,242 @@
+package com.example.finalproject1.repository.memory;
+
+import com.example.finalproject1.dto.AddressedResident;
+import com.example.finalproject1.dto.PersonEmail;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.event.ChangeType;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.PersonRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * {@link PersonRepository} held in memory, indexed by address, city, name, last name and household.
+ * Station lookups go through the households {@link InMemoryFireStationRepository} maps each station to,
+ * as the JPA queries join on the household key. Publishes a {@link PersonChangedEvent} for every write,
+ * as the JPA entity listener does.
+ */
+@Repository
+@Profile("in-memory")
+public class InMemoryPersonRepository extends InMemoryRepository<Person> implements PersonRepository {
+
+    private final SecondaryIndex<Person, String> byAddress = new SecondaryIndex<>(Person::getAddress);
+    private final SecondaryIndex<Person, String> byCity = new SecondaryIndex<>(Person::getCity);
+    private final SecondaryIndex<Person, String> byName = new SecondaryIndex<>(InMemoryPersonRepository::nameOf);
+    private final SecondaryIndex<Person, String> byLastName = new SecondaryIndex<>(Person::getLastName);
+    private final SecondaryIndex<Person, Long> byHousehold = new SecondaryIndex<>(
+            person -> person.getHousehold() == null ? null : person.getHousehold().getId());
+
+    @Autowired
+    private InMemoryFireStationRepository fireStationRepository;
+
+    @Override
+    public List<Person> findByAddressIn(List<String> addresses) {
+        return entitiesOf(idsOf(byAddress, addresses));
+    }
+
+    @Override
+    public List<Person> findByAddress(String address) {
+        return entitiesOf(byAddress.ids(address));
+    }
+
+    @Override
+    public List<Person> findByFirstNameAndLastName(String firstName, String lastName) {
+        return firstName == null || lastName == null
+                ? Collections.emptyList()
+                : entitiesOf(byName.ids(firstName + '\u0000' + lastName));
+    }
+
+    @Override
+    public List<Person> findByLastNameInAndFirstNameIn(Collection<String> lastNames, Collection<String> firstNames) {
+        Set<String> wanted = new HashSet<>(firstNames);
+        return entitiesOf(idsOf(byLastName, lastNames)).stream()
+                .filter(person -> wanted.contains(person.getFirstName()))
+                .toList();
+    }
+
+    @Override
+    public List<Person> findByCity(String city) {
+        return entitiesOf(byCity.ids(city));
+    }
+
+    @Override
+    public List<Person> findByStationNumber(int stationNumber) {
+        return findByStationNumberIn(List.of(stationNumber));
+    }
+
+    @Override
+    public List<Person> findByStationNumberIn(Collection<Integer> stationNumbers) {
+        List<Person> people = new ArrayList<>();
+        for (Long householdId : fireStationRepository.findHouseholdIdsByStationNumberIn(stationNumbers)) {
+            people.addAll(entitiesOf(byHousehold.ids(householdId)));
+        }
+        return people;
+    }
+
+    @Override
+    public List<Person> findByHouseholdIdIn(Collection<Long> householdIds) {
+        List<Person> people = new ArrayList<>();
+        for (Long householdId : new TreeSet<>(householdIds)) {
+            people.addAll(entitiesOf(byHousehold.ids(householdId)));
+        }
+        return people;
+    }
+
+    @Override
+    public StationHeadcount countByStationNumber(int stationNumber) {
+        long adults = 0;
+        long children = 0;
+        for (Person person : findByStationNumber(stationNumber)) {
+            if (person.getAge() == null) {
+                continue;
+            }
+            if (person.getAge() >= 18) {
+                adults++;
+            } else {
+                children++;
+            }
+        }
+        return new StationHeadcount(adults, children);
+    }
+
+    @Override
+    public List<String> findPhonesByStationNumber(int stationNumber) {
+        return findByStationNumber(stationNumber).stream().map(Person::getPhone).toList();
+    }
+
+    @Override
+    public List<String> findEmailsByCity(String city) {
+        return findByCity(city).stream().map(Person::getEmail).filter(InMemoryPersonRepository::isPresent).toList();
+    }
+
+    @Override
+    public List<ResidentSummary> findResidentSummariesByAddress(String address) {
+        return findByAddress(address).stream().map(ResidentSummary::of).toList();
+    }
+
+    @Override
+    public List<AddressedResident> findResidentSummariesByAddressIn(Collection<String> addresses) {
+        return entitiesOf(idsOf(byAddress, addresses)).stream()
+                .map(p -> new AddressedResident(p.getAddress(), p.getFirstName(), p.getLastName(), p.getAge()))
+                .toList();
+    }
+
+    @Override
+    public List<Object[]> findFireDetailRowsByAddressIn(Collection<String> addresses) {
+        // Same rows as the JPA query: medication rows (one without medication if there is none) first,
+        // then allergy rows
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> allergyRows = new ArrayList<>();
+        for (String address : new LinkedHashSet<>(addresses)) {
+            FireStation fireStation = fireStationRepository.findFirstByAddress(address);
+            if (fireStation == null || fireStation.getHousehold() == null) {
+                continue;
+            }
+            for (Person person : entitiesOf(byHousehold.ids(fireStation.getHousehold().getId()))) {
+                List<String> medications = valuesOf(person.getMedications());
+                if (medications.isEmpty()) {
+                    rows.add(fireDetailRow(fireStation, person, null, null));
+                }
+                for (String medication : medications) {
+                    rows.add(fireDetailRow(fireStation, person, medication, null));
+                }
+                for (String allergy : valuesOf(person.getAllergies())) {
+                    allergyRows.add(fireDetailRow(fireStation, person, null, allergy));
+                }
+            }
+        }
+        rows.addAll(allergyRows);
+        return rows;
+    }
+
+    @Override
+    public List<Person> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit) {
+        return entities.tailMap(id, false).values().stream().limit(maxOf(limit)).toList();
+    }
+
+    @Override
+    public List<PersonEmail> findEmailPageByCity(String city, Long after, Limit limit) {
+        return entitiesOf(byCity.ids(city).tailSet(after, false)).stream()
+                .filter(person -> isPresent(person.getEmail()))
+                .limit(maxOf(limit))
+                .map(person -> new PersonEmail(person.getId(), person.getEmail()))
+                .toList();
+    }
+
+    @Override
+    public List<String> findDistinctPhonePageByStationNumber(int stationNumber, String after, Limit limit) {
+        return distinctPage(findByStationNumber(stationNumber).stream().map(Person::getPhone), after, limit);
+    }
+
+    @Override
+    public List<String> findDistinctEmailPageByCity(String city, String after, Limit limit) {
+        return distinctPage(findByCity(city).stream().map(Person::getEmail), after, limit);
+    }
+
+    @Override
+    protected Long idOf(Person person) {
+        return person.getId();
+    }
+
+    @Override
+    protected void assignId(Person person, Long id) {
+        person.setId(id);
+    }
+
+    @Override
+    protected void index(Long id, Person person) {
+        String previousAddress = byAddress.put(id, person);
+        String previousCity = byCity.put(id, person);
+        byName.put(id, person);
+        byLastName.put(id, person);
+        byHousehold.put(id, person);
+        publish(new PersonChangedEvent(person, ChangeType.SAVED, previousAddress, previousCity));
+    }
+
+    @Override
+    protected void unindex(Long id, Person person) {
+        String previousAddress = byAddress.remove(id);
+        String previousCity = byCity.remove(id);
+        byName.remove(id);
+        byLastName.remove(id);
+        byHousehold.remove(id);
+        publish(new PersonChangedEvent(person, ChangeType.DELETED, previousAddress, previousCity));
+    }
+
+    private static Object[] fireDetailRow(FireStation fireStation, Person person, String medication, String allergy) {
+        return new Object[]{fireStation.getStationNumber(), person.getId(), person.getFirstName(),
+                person.getLastName(), person.getAddress(), person.getCity(), person.getPhone(), person.getEmail(),
+                person.getAge(), medication, allergy};
+    }
+
+    private static String nameOf(Person person) {
+        return person.getFirstName() == null || person.getLastName() == null
+                ? null
+                : person.getFirstName() + '\u0000' + person.getLastName();
+    }
+
+    // Matches "<> ''" in SQL, which is not true for null either
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static List<String> distinctPage(Stream<String> values, String after, Limit limit) {
+        return values.filter(value -> value != null && value.compareTo(after) > 0)
+                .distinct()
+                .sorted()
+                .limit(maxOf(limit))
+                .toList();
+    }
+
+    private static List<String> valuesOf(List<String> values) {
+        return values == null ? List.of() : values;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.finalproject1.repository.memory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.ListCrudRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CRUD over a concurrent map of entities by id, with the secondary indexes kept by subclasses.
+ * <p>
+ * Writes are serialized per repository and take effect immediately: they are not part of any
+ * transaction and are not rolled back with one. Reads take no lock and return the stored instances;
+ * changes made to them are indexed when they are saved again, as JPA would flush them.
+ *
+ * @param <T> the entity type
+ */
+abstract class InMemoryRepository<T> implements ListCrudRepository<T, Long> {
+
+    // Entities by id, in id order
+    protected final ConcurrentSkipListMap<Long, T> entities = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    protected abstract Long idOf(T entity);
+
+    protected abstract void assignId(T entity, Long id);
+
+    /**
+     * Indexes a saved entity, inserted or updated; called while holding the write lock.
+     */
+    protected abstract void index(Long id, T entity);
+
+    /**
+     * Removes a deleted entity from the indexes; called while holding the write lock.
+     */
+    protected abstract void unindex(Long id, T entity);
+
+    @Override
+    public synchronized <S extends T> S save(S entity) {
+        Long id = idOf(entity);
+        if (id == null) {
+            id = sequence.incrementAndGet();
+            assignId(entity, id);
+        } else {
+            sequence.accumulateAndGet(id, Math::max);
+        }
+        entities.put(id, entity);
+        index(id, entity);
+        return entity;
+    }
+
+    @Override
+    public synchronized <S extends T> List<S> saveAll(Iterable<S> toSave) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : toSave) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return entities.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(entities.values());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        List<T> found = new ArrayList<>();
+        for (Long id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public synchronized void deleteById(Long id) {
+        T entity = entities.remove(id);
+        if (entity != null) {
+            unindex(id, entity);
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        Long id = idOf(entity);
+        if (id != null) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public synchronized void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public synchronized void deleteAll(Iterable<? extends T> toDelete) {
+        toDelete.forEach(this::delete);
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        deleteAllById(new ArrayList<>(entities.keySet()));
+    }
+
+    /**
+     * @return the entities with the given ids, in iteration order, skipping those deleted meanwhile
+     */
+    protected List<T> entitiesOf(Collection<Long> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the ids indexed under any of the keys, in id order
+     */
+    protected static <K> NavigableSet<Long> idsOf(SecondaryIndex<?, K> index, Collection<? extends K> keys) {
+        NavigableSet<Long> ids = new TreeSet<>();
+        for (K key : keys) {
+            ids.addAll(index.ids(key));
+        }
+        return ids;
+    }
+
+    /**
+     * @return the number of rows a query may return under the limit
+     */
+    protected static long maxOf(Limit limit) {
+        return limit.isLimited() ? limit.max() : Long.MAX_VALUE;
+    }
+
+    protected void publish(Object event) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.finalproject1.repository.memory;
+
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Ids of the entities sharing a key, in id order. Entities whose key is null are not indexed, as a
+ * null column never matches an equality condition in SQL either.
+ * <p>
+ * Updated by one writer at a time; readers may run concurrently.
+ *
+ * @param <T> the entity type
+ * @param <K> the key type
+ */
+final class SecondaryIndex<T, K> {
+
+    private final Function<T, K> keyOf;
+    private final ConcurrentHashMap<K, NavigableSet<Long>> ids = new ConcurrentHashMap<>();
+    // Key each id is indexed under, so that an entity changed in place can be moved to its new key
+    private final ConcurrentHashMap<Long, K> keys = new ConcurrentHashMap<>();
+
+    SecondaryIndex(Function<T, K> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    /**
+     * Indexes an entity under its current key.
+     *
+     * @return the key it was indexed under before, null if none
+     */
+    K put(Long id, T entity) {
+        K key = keyOf.apply(entity);
+        K previous = key == null ? keys.remove(id) : keys.put(id, key);
+        if (!Objects.equals(previous, key)) {
+            if (previous != null) {
+                removeId(previous, id);
+            }
+            if (key != null) {
+                ids.compute(key, (k, set) -> {
+                    NavigableSet<Long> updated = set == null ? new ConcurrentSkipListSet<>() : set;
+                    updated.add(id);
+                    return updated;
+                });
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Removes an entity from the index.
+     *
+     * @return the key it was indexed under, null if none
+     */
+    K remove(Long id) {
+        K previous = keys.remove(id);
+        if (previous != null) {
+            removeId(previous, id);
+        }
+        return previous;
+    }
+
+    /**
+     * @return the ids indexed under the key, in id order; a live view, not to be modified
+     */
+    NavigableSet<Long> ids(K key) {
+        NavigableSet<Long> set = key == null ? null : ids.get(key);
+        return set == null ? Collections.emptyNavigableSet() : set;
+    }
+
+    private void removeId(K key, Long id) {
+        ids.computeIfPresent(key, (k, set) -> {
+            set.remove(id);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
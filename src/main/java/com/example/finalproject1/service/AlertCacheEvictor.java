@@ -0,0 +1,176 @@
+package com.example.finalproject1.service;
+
+import com.example.finalproject1.config.CacheConfig;
+import com.example.finalproject1.event.FireStationChangedEvent;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Evicts exactly the cached alert results a committed write can have changed.
+ * <p>
+ * Address and city keyed entries are evicted for both the old and the new value of the entity.
+ * Station keyed entries are evicted for every station covering an affected address.
+ * <p>
+ * The changes of a transaction are collected while it runs and evicted once it commits, so the
+ * stations covering the changed addresses are resolved with one query per
+ * {@code alerts.writes.chunk-size} addresses rather than one per changed person. A rolled back
+ * transaction evicts nothing; a change made outside a transaction is evicted at once.
+ */
+@Component
+public class AlertCacheEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertCacheEvictor.class);
+
+    private static final List<String> STATION_CACHES = List.of(
+            CacheConfig.PEOPLE_BY_STATION, CacheConfig.STATION_HEADCOUNT, CacheConfig.PHONE_ALERT);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private FireStationRepository fireStationRepository;
+
+    // Addresses per station lookup, which bounds its IN list
+    @Value("${alerts.writes.chunk-size:1000}")
+    private int chunkSize;
+
+    @EventListener
+    public void onPersonChanged(PersonChangedEvent event) {
+        Person person = event.person();
+        Changes changes = changes();
+        changes.personAddresses.addAll(valuesOf(person.getAddress(), event.previousAddress()));
+        changes.cities.addAll(valuesOf(person.getCity(), event.previousCity()));
+        evictUnlessPending(changes);
+    }
+
+    @EventListener
+    public void onFireStationChanged(FireStationChangedEvent event) {
+        FireStation fireStation = event.fireStation();
+        Changes changes = changes();
+        changes.stationAddresses.addAll(valuesOf(fireStation.getAddress(), event.previousAddress()));
+        changes.stationNumbers.addAll(valuesOf(fireStation.getStationNumber(), event.previousStationNumber()));
+        evictUnlessPending(changes);
+    }
+
+    /**
+     * The changes of the current transaction, registered to be evicted after it commits; a new,
+     * unregistered set outside a transaction.
+     */
+    private Changes changes() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Changes();
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    private void evictUnlessPending(Changes changes) {
+        if (TransactionSynchronizationManager.getResource(this) != changes) {
+            evict(changes);
+        }
+    }
+
+    private void evict(Changes changes) {
+        for (String address : changes.personAddresses) {
+            evict(CacheConfig.CHILD_ALERT, address);
+            evict(CacheConfig.FIRE, address);
+        }
+        for (String address : changes.stationAddresses) {
+            evict(CacheConfig.FIRE, address);
+        }
+        for (String city : changes.cities) {
+            evict(CacheConfig.COMMUNITY_EMAIL, city);
+        }
+        Set<Integer> stationNumbers = new HashSet<>(changes.stationNumbers);
+        if (!changes.personAddresses.isEmpty() && stationEntriesCached()) {
+            List<String> addresses = new ArrayList<>(changes.personAddresses);
+            for (int i = 0; i < addresses.size(); i += chunkSize) {
+                stationNumbers.addAll(fireStationRepository.findStationNumbersByAddressIn(
+                        addresses.subList(i, Math.min(addresses.size(), i + chunkSize))));
+            }
+        }
+        evictStations(stationNumbers);
+    }
+
+    private void evictStations(Set<Integer> stationNumbers) {
+        if (stationNumbers.isEmpty()) {
+            return;
+        }
+        for (String cacheName : STATION_CACHES) {
+            stationNumbers.forEach(stationNumber -> evict(cacheName, stationNumber));
+        }
+        logger.debug("Evicted cached station results for stations: {}", stationNumbers);
+    }
+    /**
+     * Whether any station keyed cache holds entries, so the address-to-station lookup can be
+     * skipped while the caches are cold, e.g. during the startup load.
+     */
+    private boolean stationEntriesCached() {
+        for (String cacheName : STATION_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null && !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+                    && nativeCache.estimatedSize() == 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    @SafeVarargs
+    private static <T> Set<T> valuesOf(T... values) {
+        Set<T> result = new HashSet<>();
+        for (T value : values) {
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keys changed by one transaction, evicted once it commits.
+     */
+    private class Changes implements TransactionSynchronization {
+
+        private final Set<String> personAddresses = new HashSet<>();
+        private final Set<String> stationAddresses = new HashSet<>();
+        private final Set<String> cities = new HashSet<>();
+        private final Set<Integer> stationNumbers = new HashSet<>();
+
+        @Override
+        public void afterCommit() {
+            evict(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AlertCacheEvictor.this);
+        }
+    }
+}
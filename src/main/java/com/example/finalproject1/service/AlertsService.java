@@ -1,74 +1,206 @@
 package com.example.finalproject1.service;
 
-import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.config.CacheConfig;
+import com.example.finalproject1.dto.AddressedResident;
+import com.example.finalproject1.dto.KeysetPage;
+import com.example.finalproject1.dto.PersonEmail;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationCoverage;
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.index.AlertIndex;
+import com.example.finalproject1.metrics.StatementCounter;
 import com.example.finalproject1.model.Person;
 import com.example.finalproject1.repository.FireStationRepository;
 import com.example.finalproject1.repository.PersonRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 // Additional imports
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Answers the alert endpoints, from the AlertIndex when it is enabled and from the repositories otherwise.
+ * <p>
+ * The repository reads run in read-only transactions: Hibernate loads entities read-only, without the
+ * snapshot dirty checking compares them to, and never flushes the session. Reads answered by the index,
+ * or by the in-memory repositories, open no transaction and borrow no connection.
+ */
 @Service
+@Timed(value = "alerts.service", histogram = true)
 public class AlertsService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertsService.class);
 
+    // Largest page a client may request, and the page size used internally when streaming entities
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_PAGE_SIZE = 500;
+    private static final int STREAM_HOUSEHOLDS_PAGE_SIZE = 100;
+
     @Autowired
     private PersonRepository personRepository;
 
     @Autowired
     private FireStationRepository fireStationRepository;
 
+    @Autowired(required = false)
+    private AlertIndex alertIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // False under the in-memory profile, whose repositories need no transaction
+    @Value("${spring.data.jpa.repositories.enabled:true}")
+    private boolean jpaRepositories;
+
+    // Stations per /flood/stations query, and queries run at once; keep the latter below the connection pool size
+    @Value("${alerts.flood.stations-per-query:4}")
+    private int stationsPerQuery;
+
+    @Value("${alerts.flood.parallelism:4}")
+    private int floodParallelism;
+
+    private ExecutorService floodExecutor;
+
+    @PostConstruct
+    void start() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(floodParallelism, floodParallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("flood-"));
+        executor.allowCoreThreadTimeOut(true);
+        floodExecutor = executor;
+    }
+
+    @PreDestroy
+    void stop() {
+        floodExecutor.shutdownNow();
+    }
 
+    @Cacheable(CacheConfig.PEOPLE_BY_STATION)
     public List<Person> getPeopleByFireStation(int stationNumber) {
         logger.debug("Fetching fire stations with station number: {}", stationNumber);
-        List<FireStation> stations = fireStationRepository.findByStationNumber(stationNumber);
-        if (stations.isEmpty()) {
-            logger.warn("No fire stations found for station number: {}", stationNumber);
+        if (indexReady()) {
+            List<Person> people = alertIndex.findPeopleByStation(stationNumber);
+            logger.debug("Number of people found in index: {}", people.size());
+            return people;
+        }
+        List<Person> people = readOnly(() -> initialized(personRepository.findByStationNumber(stationNumber)));
+        if (people.isEmpty()) {
+            logger.warn("No people found for station number: {}", stationNumber);
             return Collections.emptyList();
         }
-        List<String> addresses = stations.stream()
-                .map(FireStation::getAddress)
-                .collect(Collectors.toList());
-        logger.debug("Addresses found: {}", addresses);
-        List<Person> people = personRepository.findByAddressIn(addresses);
         logger.debug("Number of people found: {}", people.size());
         return people;
     }
 
+    /**
+     * Batch variant of {@link #getPeopleByFireStation}: the persons of every station, with one query for
+     * the persons of all stations and one for the households each station covers.
+     *
+     * @param stationNumbers the fire station numbers
+     * @return list of persons per requested station number, in request order, empty if none found
+     */
+    public Map<Integer, List<Person>> getPeopleByFireStations(Collection<Integer> stationNumbers) {
+        logger.debug("Fetching people for fire station numbers: {}", stationNumbers);
+        Map<Integer, List<Person>> result = new LinkedHashMap<>();
+        stationNumbers.forEach(stationNumber -> result.put(stationNumber, new ArrayList<>()));
+        if (result.isEmpty()) {
+            return result;
+        }
+        if (indexReady()) {
+            result.replaceAll((stationNumber, people) -> alertIndex.findPeopleByStation(stationNumber));
+            return result;
+        }
+        return readOnly(() -> {
+            Map<Long, List<Person>> households = groupByHousehold(
+                    initialized(personRepository.findByStationNumberIn(result.keySet())));
+            for (StationCoverage coverage : fireStationRepository.findCoverageByStationNumberIn(result.keySet())) {
+                result.get(coverage.stationNumber())
+                        .addAll(households.getOrDefault(coverage.householdId(), Collections.emptyList()));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Counts adults and children within the jurisdiction of a specific fire station, without loading the persons.
+     *
+     * @param stationNumber the fire station number
+     * @return number of adults and children, both zero if none found
+     */
+    @Cacheable(CacheConfig.STATION_HEADCOUNT)
+    public StationHeadcount getHeadcountByFireStation(int stationNumber) {
+        logger.debug("Counting people for fire station number: {}", stationNumber);
+        StationHeadcount headcount = indexReady()
+                ? alertIndex.countByStation(stationNumber)
+                : readOnly(() -> personRepository.countByStationNumber(stationNumber));
+        logger.debug("Found {} adults and {} children", headcount.adults(), headcount.children());
+        return headcount;
+    }
+
     /**
      * Retrieves a list of children at a specific address along with other residents.
      *
      * @param address the address to search
      * @return map containing children and other residents or empty map if none found
      */
+    @Cacheable(CacheConfig.CHILD_ALERT)
     public Map<String, Object> getChildrenByAddress(String address) {
         logger.debug("Fetching children at address: {}", address);
-        List<Person> allResidents = personRepository.findByAddress(address);
+        List<ResidentSummary> allResidents = indexReady()
+                ? residentSummariesFromIndex(address)
+                : readOnly(() -> personRepository.findResidentSummariesByAddress(address));
         if (allResidents.isEmpty()) {
             logger.warn("No residents found at address: {}", address);
             return Collections.emptyMap();
         }
-        List<Person> children = allResidents.stream()
-                .filter(p -> p.getAge() <= 18)
-                .collect(Collectors.toList());
-        if (children.isEmpty()) {
-            logger.info("No children found at address: {}", address);
-            return Collections.emptyMap();
+        return childAlert(address, allResidents);
+    }
+
+    /**
+     * Batch variant of {@link #getChildrenByAddress}, with one query for the residents of all addresses.
+     *
+     * @param addresses the addresses to search
+     * @return children and other residents per requested address, in request order, empty if none found
+     */
+    public Map<String, Map<String, Object>> getChildrenByAddresses(Collection<String> addresses) {
+        logger.debug("Fetching children at addresses: {}", addresses);
+        Map<String, List<ResidentSummary>> residents = new LinkedHashMap<>();
+        addresses.forEach(address -> residents.put(address, new ArrayList<>()));
+        if (indexReady()) {
+            residents.replaceAll((address, summaries) -> residentSummariesFromIndex(address));
+        } else if (!residents.isEmpty()) {
+            List<AddressedResident> rows = readOnly(
+                    () -> personRepository.findResidentSummariesByAddressIn(residents.keySet()));
+            for (AddressedResident resident : rows) {
+                residents.get(resident.address()).add(resident.summary());
+            }
         }
-        List<Person> otherResidents = allResidents.stream()
-                .filter(p -> p.getAge() > 18)
-                .collect(Collectors.toList());
-        Map<String, Object> response = new HashMap<>();
-        response.put("children", children);
-        response.put("otherResidents", otherResidents);
-        logger.debug("Found {} children and {} other residents at address: {}", children.size(), otherResidents.size(), address);
-        return response;
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        residents.forEach((address, summaries) -> result.put(address, childAlert(address, summaries)));
+        return result;
     }
 
     /**
@@ -77,12 +209,14 @@ public class AlertsService {
      * @param stationNumber the fire station number
      * @return list of phone numbers or empty list if none found
      */
+    @Cacheable(CacheConfig.PHONE_ALERT)
     public List<String> getPhoneNumbersByFireStation(int stationNumber) {
         logger.debug("Fetching phone numbers for fire station number: {}", stationNumber);
-        List<Person> people = getPeopleByFireStation(stationNumber);
-        List<String> phoneNumbers = people.stream()
-                .map(Person::getPhone)
-                .collect(Collectors.toList());
+        List<String> phoneNumbers = indexReady()
+                ? alertIndex.findPeopleByStation(stationNumber).stream()
+                        .map(Person::getPhone)
+                        .collect(Collectors.toList())
+                : readOnly(() -> personRepository.findPhonesByStationNumber(stationNumber));
         logger.debug("Number of phone numbers found: {}", phoneNumbers.size());
         return phoneNumbers;
     }
@@ -93,52 +227,43 @@ public class AlertsService {
      * @param address the address to search
      * @return map containing fire station number and list of residents or empty map if none found
      */
+    @Cacheable(CacheConfig.FIRE)
     public Map<String, Object> getFireDetailsByAddress(String address) {
         logger.debug("Fetching fire details for address: {}", address);
-        List<FireStation> stations = fireStationRepository.findByAddress(address);
-        if (stations.isEmpty()) {
-            logger.warn("No fire station found for address: {}", address);
-            return Collections.emptyMap();
+        if (indexReady()) {
+            return fireDetailsFromIndex(address);
         }
-        int stationNumber = stations.get(0).getStationNumber(); // Assuming one station per address
-        List<Person> residents = personRepository.findByAddress(address);
-        if (residents.isEmpty()) {
-            logger.warn("No residents found at address: {}", address);
+        // Station, residents and their medical data in a single query
+        List<Object[]> rows = readOnly(() -> personRepository.findFireDetailRowsByAddressIn(List.of(address)));
+        if (rows.isEmpty()) {
+            logger.warn("No fire station or residents found for address: {}", address);
             return Collections.emptyMap();
         }
-        Map<String, Object> response = new HashMap<>();
-        response.put("stationNumber", stationNumber);
-        response.put("residents", residents);
-        logger.debug("Returning fire details for address: {}", address);
-        return response;
+        return fireDetails(address, rows);
     }
 
     /**
-     * Retrieves households covered by a list of fire station numbers.
+     * Batch variant of {@link #getFireDetailsByAddress}, answered by a single query for all addresses.
      *
-     * @param stationNumbers list of fire station numbers
-     * @return map of address to list of residents or empty map if none found
+     * @param addresses the addresses to search
+     * @return fire station number and residents per requested address, in request order, empty if none found
      */
-    public Map<String, List<Person>> getFloodDetailsByStations(List<Integer> stationNumbers) {
-        logger.debug("Fetching flood details for station numbers: {}", stationNumbers);
-        List<FireStation> stations = fireStationRepository.findByStationNumberIn(stationNumbers);
-        if (stations.isEmpty()) {
-            logger.warn("No fire stations found for station numbers: {}", stationNumbers);
-            return Collections.emptyMap();
+    public Map<String, Map<String, Object>> getFireDetailsByAddresses(Collection<String> addresses) {
+        logger.debug("Fetching fire details for addresses: {}", addresses);
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        addresses.forEach(address -> result.put(address, Collections.emptyMap()));
+        if (indexReady()) {
+            result.replaceAll((address, details) -> fireDetailsFromIndex(address));
+            return result;
         }
-        List<String> addresses = stations.stream()
-                .map(FireStation::getAddress)
-                .collect(Collectors.toList());
-        logger.debug("Addresses found: {}", addresses);
-        List<Person> people = personRepository.findByAddressIn(addresses);
-        if (people.isEmpty()) {
-            logger.warn("No people found for the provided station numbers.");
-            return Collections.emptyMap();
+        if (result.isEmpty()) {
+            return result;
         }
-        Map<String, List<Person>> households = people.stream()
-                .collect(Collectors.groupingBy(Person::getAddress));
-        logger.debug("Number of households found: {}", households.size());
-        return households;
+        List<Object[]> allRows = readOnly(() -> personRepository.findFireDetailRowsByAddressIn(result.keySet()));
+        Map<String, List<Object[]>> rowsByAddress = allRows.stream()
+                .collect(Collectors.groupingBy(row -> (String) row[4], LinkedHashMap::new, Collectors.toList()));
+        rowsByAddress.forEach((address, rows) -> result.put(address, fireDetails(address, rows)));
+        return result;
     }
 
     /**
@@ -150,7 +275,7 @@ public class AlertsService {
      */
     public List<Person> getPersonInfo(String firstName, String lastName) {
         logger.debug("Fetching person info for: {} {}", firstName, lastName);
-        List<Person> persons = personRepository.findByFirstNameAndLastName(firstName, lastName);
+        List<Person> persons = readOnly(() -> personRepository.findByFirstNameAndLastName(firstName, lastName));
         logger.debug("Number of persons found: {}", persons.size());
         return persons;
     }
@@ -161,17 +286,14 @@ public class AlertsService {
      * @param city the city to search
      * @return list of email addresses or empty list if none found
      */
+    @Cacheable(CacheConfig.COMMUNITY_EMAIL)
     public List<String> getCommunityEmails(String city) {
         logger.debug("Fetching community emails for city: {}", city);
-        List<Person> persons = personRepository.findByCity(city);
-        if (persons.isEmpty()) {
-            logger.warn("No persons found in city: {}", city);
+        List<String> emails = readOnly(() -> personRepository.findEmailsByCity(city));
+        if (emails.isEmpty()) {
+            logger.warn("No emails found for city: {}", city);
             return Collections.emptyList();
         }
-        List<String> emails = persons.stream()
-                .map(Person::getEmail)
-                .filter(email -> email != null && !email.isEmpty())
-                .collect(Collectors.toList());
         logger.debug("Number of emails found: {}", emails.size());
         return emails;
     }
@@ -183,6 +305,338 @@ public class AlertsService {
      */
     public List<Person> getAllPersons() {
         logger.debug("Fetching all persons from the database.");
-        return personRepository.findAll();
+        return readOnly(() -> personRepository.findAll());
+    }
+
+    /**
+     * Retrieves one page of the email addresses in a city, in person id order.
+     *
+     * @param city  the city to search
+     * @param after cursor returned with the previous page, or null for the first page
+     * @param limit maximum number of emails, capped at 1000
+     * @return the page, empty if none found
+     */
+    public KeysetPage<String> getCommunityEmailsPage(String city, Long after, int limit) {
+        int pageSize = pageSize(limit);
+        logger.debug("Fetching community emails for city: {} after: {} limit: {}", city, after, pageSize);
+        List<PersonEmail> rows = readOnly(() -> personRepository.findEmailPageByCity(city, after == null ? 0L : after,
+                Limit.of(pageSize)));
+        return KeysetPage.of(rows, pageSize, PersonEmail::id, PersonEmail::email);
+    }
+
+    /**
+     * Passes every email address in a city to the sink. Emails are read in keyset pages, each in its own
+     * short transaction, so memory use does not depend on the size of the city and no connection is held
+     * while the sink writes to a slow client.
+     *
+     * @param city the city to search
+     * @param sink receives the emails, in person id order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamCommunityEmails(String city, Consumer<String> sink) {
+        logger.debug("Streaming community emails for city: {}", city);
+        long after = 0L;
+        List<PersonEmail> page;
+        do {
+            long from = after;
+            page = readOnly(() -> personRepository.findEmailPageByCity(city, from, Limit.of(STREAM_PAGE_SIZE)));
+            page.forEach(row -> sink.accept(row.email()));
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Retrieves one page of the distinct phone numbers within a fire station's jurisdiction. Each page is
+     * read in its own short transaction, so a caller pausing between pages holds no connection.
+     *
+     * @param stationNumber the fire station number
+     * @param after         last phone number of the previous page, or an empty string for the first page
+     * @param limit         maximum number of phone numbers, capped at 1000
+     * @return the phone numbers, in their own order
+     */
+    public List<String> getDistinctPhoneNumbersPage(int stationNumber, String after, int limit) {
+        logger.debug("Fetching distinct phone numbers for fire station number: {} after: {}", stationNumber, after);
+        return readOnly(() -> personRepository.findDistinctPhonePageByStationNumber(stationNumber, after,
+                Limit.of(pageSize(limit))));
+    }
+
+    /**
+     * Retrieves one page of the distinct email addresses in a city, like {@link #getDistinctPhoneNumbersPage}.
+     *
+     * @param city  the city to search
+     * @param after last email of the previous page, or an empty string for the first page
+     * @param limit maximum number of emails, capped at 1000
+     * @return the emails, in their own order
+     */
+    public List<String> getDistinctCommunityEmailsPage(String city, String after, int limit) {
+        logger.debug("Fetching distinct community emails for city: {} after: {}", city, after);
+        return readOnly(() -> personRepository.findDistinctEmailPageByCity(city, after, Limit.of(pageSize(limit))));
+    }
+
+    /**
+     * Retrieves one page of all persons, in id order.
+     *
+     * @param after cursor returned with the previous page, or null for the first page
+     * @param limit maximum number of persons, capped at 1000
+     * @return the page
+     */
+    public KeysetPage<Person> getPersonsPage(Long after, int limit) {
+        int pageSize = pageSize(limit);
+        logger.debug("Fetching persons after: {} limit: {}", after, pageSize);
+        List<Person> persons = readOnly(() -> initialized(personRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize))));
+        return KeysetPage.of(persons, pageSize, Person::getId, person -> person);
+    }
+
+    /**
+     * Passes every person to the sink. Persons are read in keyset pages, with their collections, each in
+     * its own short transaction, so only one page is held at a time and no connection is held while the
+     * sink writes to a slow client.
+     *
+     * @param sink receives the persons, in id order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamAllPersons(Consumer<Person> sink) {
+        logger.debug("Streaming all persons from the database.");
+        long after = 0L;
+        List<Person> page;
+        do {
+            long from = after;
+            page = readOnly(() -> detached(initialized(
+                    personRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(STREAM_PAGE_SIZE)))));
+            page.forEach(sink);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Passes every person within the jurisdiction of a fire station to the sink, household by household.
+     * Unlike {@link #getPeopleByFireStation}, the persons are never held as a whole nor cached.
+     *
+     * @param stationNumber the fire station number
+     * @param sink          receives the persons, in household order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamPeopleByFireStation(int stationNumber, Consumer<Person> sink) {
+        logger.debug("Streaming people for fire station number: {}", stationNumber);
+        if (indexReady()) {
+            alertIndex.findPeopleByStation(stationNumber).forEach(sink);
+            return;
+        }
+        streamHouseholds(List.of(stationNumber), members -> members.forEach(sink));
+    }
+
+    /**
+     * Passes every household covered by the stations to the sink, one at a time. The households are
+     * never held as a whole nor cached.
+     *
+     * @param stationNumbers the fire station numbers
+     * @param sink           receives the address and residents of each household, in household order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamFloodHouseholdsByStations(Collection<Integer> stationNumbers,
+                                                BiConsumer<String, List<Person>> sink) {
+        logger.debug("Streaming flood details for station numbers: {}", stationNumbers);
+        if (indexReady()) {
+            alertIndex.findHouseholdsByStations(stationNumbers).forEach(sink);
+            return;
+        }
+        streamHouseholds(new LinkedHashSet<>(stationNumbers),
+                members -> sink.accept(members.get(0).getAddress(), members));
+    }
+
+    /**
+     * Passes the residents of each household the stations cover to the sink. Households are read in
+     * keyset pages, with their persons and collections, each page in its own short read-only transaction:
+     * only one page of households is held at a time, and no connection is held while the sink writes
+     * to a slow client.
+     * <p>
+     * The household ids are queried in chunks of {@code alerts.flood.stations-per-query} stations, which
+     * bounds the IN list of each query. The chunk queries run in parallel on the flood executor, and those
+     * of the next page already run while the sink takes the current one. Each page is the first ids of the
+     * merged chunks' pages: a household covered by stations of several chunks is passed once, in household order.
+     */
+    private void streamHouseholds(Collection<Integer> stationNumbers, Consumer<List<Person>> sink) {
+        List<List<Integer>> chunks = chunks(new ArrayList<>(stationNumbers), stationsPerQuery);
+        List<Future<List<Long>>> next = householdIdPages(chunks, 0L);
+        try {
+            List<Long> householdIds;
+            do {
+                householdIds = firstHouseholdIds(next);
+                if (householdIds.isEmpty()) {
+                    return;
+                }
+                next = householdIds.size() == STREAM_HOUSEHOLDS_PAGE_SIZE
+                        ? householdIdPages(chunks, householdIds.get(householdIds.size() - 1))
+                        : List.of();
+                List<Long> page = householdIds;
+                readOnly(() -> groupByHousehold(detached(initialized(personRepository.findByHouseholdIdIn(page)))))
+                        .values().forEach(sink);
+            } while (householdIds.size() == STREAM_HOUSEHOLDS_PAGE_SIZE);
+        } finally {
+            // Stops the prefetch when the sink failed, e.g. because the client went away
+            next.forEach(future -> future.cancel(true));
+        }
+    }
+
+    // Starts the household id query of every chunk, for the ids after the given one
+    private List<Future<List<Long>>> householdIdPages(List<List<Integer>> chunks, long after) {
+        List<Future<List<Long>>> pages = new ArrayList<>(chunks.size());
+        for (List<Integer> chunk : chunks) {
+            pages.add(floodExecutor.submit(StatementCounter.propagate(() -> readOnly(
+                    () -> fireStationRepository.findHouseholdIdPageByStationNumberIn(
+                            chunk, after, Limit.of(STREAM_HOUSEHOLDS_PAGE_SIZE))))));
+        }
+        return pages;
+    }
+
+    private static List<Long> firstHouseholdIds(List<Future<List<Long>>> pages) {
+        NavigableSet<Long> merged = new TreeSet<>();
+        try {
+            for (Future<List<Long>> page : pages) {
+                merged.addAll(page.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading households", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+        return merged.stream().limit(STREAM_HOUSEHOLDS_PAGE_SIZE).toList();
+    }
+
+    // Runs a repository read in a read-only transaction, or directly on the in-memory repositories
+    private <T> T readOnly(Supplier<T> read) {
+        if (!jpaRepositories) {
+            return read.get();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    // Entities handed to a sink outside their transaction: keeps a request-scoped persistence context from growing
+    private <T> T detached(T entities) {
+        entityManager.clear();
+        return entities;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += chunkSize) {
+            chunks.add(values.subList(i, Math.min(values.size(), i + chunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Loads the medications and allergies of the given persons, so that a cached result can still be
+     * serialized once the session that loaded it is closed. With subselect fetching this is one
+     * statement per collection for the whole list.
+     */
+    private static List<Person> initialized(List<Person> people) {
+        for (Person person : people) {
+            Hibernate.initialize(person.getMedications());
+            Hibernate.initialize(person.getAllergies());
+        }
+        return people;
+    }
+
+    private static Map<Long, List<Person>> groupByHousehold(List<Person> people) {
+        return people.stream()
+                .collect(Collectors.groupingBy(p -> p.getHousehold().getId(), LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private List<ResidentSummary> residentSummariesFromIndex(String address) {
+        return alertIndex.findResidents(address).stream().map(ResidentSummary::of).collect(Collectors.toList());
+    }
+
+    /**
+     * Splits the residents of an address into children and other residents.
+     *
+     * @return the /childAlert response, or an empty map if no child lives there
+     */
+    private static Map<String, Object> childAlert(String address, List<ResidentSummary> allResidents) {
+        List<ResidentSummary> children = allResidents.stream()
+                .filter(p -> p.age() <= 18)
+                .collect(Collectors.toList());
+        if (children.isEmpty()) {
+            logger.info("No children found at address: {}", address);
+            return Collections.emptyMap();
+        }
+        List<ResidentSummary> otherResidents = allResidents.stream()
+                .filter(p -> p.age() > 18)
+                .collect(Collectors.toList());
+        Map<String, Object> response = new HashMap<>();
+        response.put("children", children);
+        response.put("otherResidents", otherResidents);
+        logger.debug("Found {} children and {} other residents at address: {}", children.size(), otherResidents.size(), address);
+        return response;
+    }
+
+    private Map<String, Object> fireDetailsFromIndex(String address) {
+        OptionalInt station = alertIndex.findStationNumber(address);
+        if (station.isEmpty()) {
+            logger.warn("No fire station found for address: {}", address);
+            return Collections.emptyMap();
+        }
+        return fireDetails(address, station.getAsInt(), alertIndex.findResidents(address));
+    }
+
+    /**
+     * Builds the /fire response from the rows of one address.
+     */
+    private static Map<String, Object> fireDetails(String address, List<Object[]> rows) {
+        return fireDetails(address, ((Number) rows.get(0)[0]).intValue(), residentsOf(rows));
+    }
+
+    private static Map<String, Object> fireDetails(String address, int stationNumber, List<Person> residents) {
+        if (residents.isEmpty()) {
+            logger.warn("No residents found at address: {}", address);
+            return Collections.emptyMap();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("stationNumber", stationNumber);
+        response.put("residents", residents);
+        logger.debug("Returning fire details for address: {}", address);
+        return response;
+    }
+
+    /**
+     * Folds the rows of {@link PersonRepository#findFireDetailRowsByAddressIn} into one Person per id,
+     * in the order the residents were first returned.
+     */
+    private static List<Person> residentsOf(List<Object[]> rows) {
+        Map<Long, Person> residents = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Person person = residents.computeIfAbsent((Long) row[1], id -> {
+                Person resident = new Person((String) row[2], (String) row[3], (String) row[4], (String) row[5],
+                        (String) row[6], (String) row[7], (Integer) row[8], new ArrayList<>(), new ArrayList<>());
+                resident.setId(id);
+                return resident;
+            });
+            if (row[9] != null) {
+                person.getMedications().add((String) row[9]);
+            }
+            if (row[10] != null) {
+                person.getAllergies().add((String) row[10]);
+            }
+        }
+        return new ArrayList<>(residents.values());
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Whether lookups can be answered by the in-memory index instead of the repositories.
+     */
+    private boolean indexReady() {
+        return alertIndex != null && alertIndex.isReady();
     }
 }
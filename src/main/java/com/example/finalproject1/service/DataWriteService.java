@@ -0,0 +1,297 @@
+package com.example.finalproject1.service;
+
+import com.example.finalproject1.dto.BulkWriteResult;
+import com.example.finalproject1.dto.FireStationMapping;
+import com.example.finalproject1.exception.InvalidRequestException;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Household;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.HouseholdRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Creates, updates and deletes persons and fire station mappings.
+ * <p>
+ * Persons are identified by first and last name, fire station mappings by address and station number.
+ * Every write resolves the {@link Household} of its address, creating it if needed. Caches and the
+ * AlertIndex follow through the change events the entities publish, one key at a time.
+ * <p>
+ * Bulk uploads are newline-delimited JSON read one record at a time. Each chunk is upserted in its own
+ * transaction with one lookup query per chunk and JDBC-batched writes, so row locks are held for one
+ * chunk only and memory use does not depend on the size of the upload.
+ */
+@Service
+public class DataWriteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataWriteService.class);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FireStationRepository fireStationRepository;
+
+    @Autowired
+    private HouseholdRepository householdRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${alerts.writes.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Inserts a person, or updates the person with the same first and last name.
+     *
+     * @param person the person as it should be stored
+     * @return true if the person was inserted, false if an existing one was updated
+     */
+    @Transactional
+    public boolean upsertPerson(Person person) {
+        validate(person, 1);
+        return upsertPersons(List.of(person)) == 1;
+    }
+
+    /**
+     * Deletes the person with a first and last name.
+     *
+     * @return true if a person was deleted
+     */
+    @Transactional
+    public boolean deletePerson(String firstName, String lastName) {
+        List<Person> persons = personRepository.findByFirstNameAndLastName(firstName, lastName);
+        personRepository.deleteAll(persons);
+        logger.debug("Deleted {} persons named {} {}", persons.size(), firstName, lastName);
+        return !persons.isEmpty();
+    }
+
+    /**
+     * Adds an address to a fire station's jurisdiction, unless it already is.
+     *
+     * @return true if the mapping was inserted, false if it already existed
+     */
+    @Transactional
+    public boolean upsertFireStation(FireStationMapping mapping) {
+        validate(mapping, 1);
+        return upsertFireStations(List.of(mapping)) == 1;
+    }
+
+    /**
+     * Removes an address from the jurisdiction of one fire station, or of all fire stations if
+     * {@code stationNumber} is null.
+     *
+     * @return true if a mapping was deleted
+     */
+    @Transactional
+    public boolean deleteFireStation(String address, Integer stationNumber) {
+        List<FireStation> mappings = fireStationRepository.findByAddress(address).stream()
+                .filter(fs -> stationNumber == null || fs.getStationNumber() == stationNumber)
+                .toList();
+        fireStationRepository.deleteAll(mappings);
+        logger.debug("Deleted {} fire station mappings of address {}", mappings.size(), address);
+        return !mappings.isEmpty();
+    }
+
+    /**
+     * Upserts the persons of a newline-delimited JSON upload, one transaction per chunk.
+     * Chunks before an invalid or malformed record stay committed.
+     *
+     * @param ndjson one person per line
+     * @return the outcome of the upload
+     */
+    public BulkWriteResult bulkUpsertPersons(InputStream ndjson) throws IOException {
+        return bulk(ndjson, Person.class, this::upsertPersons);
+    }
+
+    /**
+     * Upserts the fire station mappings of a newline-delimited JSON upload, one transaction per chunk.
+     * Chunks before an invalid or malformed record stay committed.
+     *
+     * @param ndjson one {@code {"address": ..., "station": ...}} per line
+     * @return the outcome of the upload
+     */
+    public BulkWriteResult bulkUpsertFireStations(InputStream ndjson) throws IOException {
+        return bulk(ndjson, FireStationMapping.class, this::upsertFireStations);
+    }
+
+    private <T> BulkWriteResult bulk(InputStream ndjson, Class<T> type, ToIntFunction<List<T>> upsertChunk)
+            throws IOException {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long rows = 0;
+        long inserted = 0;
+        long chunks = 0;
+        try (MappingIterator<T> records = mapper.readerFor(type).readValues(ndjson)) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while (records.hasNextValue()) {
+                T record = records.nextValue();
+                validate(record, ++rows);
+                chunk.add(record);
+                if (chunk.size() >= chunkSize || !records.hasNextValue()) {
+                    List<T> rowsOfChunk = chunk;
+                    inserted += transactionTemplate.execute(status -> {
+                        int count = upsertChunk.applyAsInt(rowsOfChunk);
+                        // The request's persistence context outlives the chunk: keep it from growing
+                        entityManager.flush();
+                        entityManager.clear();
+                        return count;
+                    });
+                    chunks++;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // A malformed line is the client's error, as an invalid record is
+            throw new InvalidRequestException("Record " + (rows + 1) + ": " + e.getOriginalMessage(), e);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Bulk upsert of {} {} records: {} inserted in {} chunks, {} ms", rows, type.getSimpleName(),
+                inserted, chunks, elapsedMillis);
+        return new BulkWriteResult(rows, inserted, rows - inserted, chunks, elapsedMillis);
+    }
+
+    /**
+     * Upserts persons with one lookup by name, in the caller's transaction if there is one.
+     *
+     * @return the number of persons inserted
+     */
+    @Transactional
+    public int upsertPersons(List<Person> rows) {
+        Set<String> names = new HashSet<>();
+        Set<String> lastNames = new HashSet<>();
+        Set<String> firstNames = new HashSet<>();
+        Set<String> addresses = new HashSet<>();
+        for (Person row : rows) {
+            names.add(nameOf(row));
+            lastNames.add(row.getLastName());
+            firstNames.add(row.getFirstName());
+            addresses.add(row.getAddress());
+        }
+        Map<String, Household> households = households(addresses);
+        // Both names are looked up on the name index; only the exact (first name, last name) pairs of the chunk are kept
+        Map<String, Person> byName = new HashMap<>();
+        for (Person person : personRepository.findByLastNameInAndFirstNameIn(lastNames, firstNames)) {
+            if (names.contains(nameOf(person))) {
+                byName.putIfAbsent(nameOf(person), person);
+            }
+        }
+
+        // Updated persons are saved as well: JPA would flush them anyway, other backends have no dirty checking
+        Set<Person> written = new LinkedHashSet<>();
+        int inserted = 0;
+        for (Person row : rows) {
+            Person person = byName.get(nameOf(row));
+            if (person == null) {
+                person = row;
+                person.setId(null);
+                byName.put(nameOf(person), person);
+                inserted++;
+            } else {
+                person.setAddress(row.getAddress());
+                person.setCity(row.getCity());
+                person.setPhone(row.getPhone());
+                person.setEmail(row.getEmail());
+                person.setAge(row.getAge());
+                person.setMedications(row.getMedications());
+                person.setAllergies(row.getAllergies());
+            }
+            person.setHousehold(households.get(person.getAddress()));
+            written.add(person);
+        }
+        personRepository.saveAll(written);
+        return inserted;
+    }
+
+    /**
+     * Inserts the fire station mappings that do not exist yet, with one lookup by address, in the
+     * caller's transaction if there is one.
+     *
+     * @return the number of mappings inserted
+     */
+    @Transactional
+    public int upsertFireStations(List<FireStationMapping> rows) {
+        Set<String> addresses = new HashSet<>();
+        for (FireStationMapping row : rows) {
+            addresses.add(row.address());
+        }
+        Map<String, Household> households = households(addresses);
+        Set<FireStationMapping> existing = new HashSet<>();
+        for (FireStation fs : fireStationRepository.findByAddressIn(addresses)) {
+            existing.add(new FireStationMapping(fs.getAddress(), fs.getStationNumber()));
+        }
+
+        List<FireStation> created = new ArrayList<>();
+        for (FireStationMapping row : rows) {
+            if (existing.add(row)) {
+                FireStation fireStation = row.toEntity();
+                fireStation.setHousehold(households.get(row.address()));
+                created.add(fireStation);
+            }
+        }
+        fireStationRepository.saveAll(created);
+        return created.size();
+    }
+
+    /**
+     * Returns the households of the addresses, saving those that do not exist yet, in the caller's
+     * transaction if there is one.
+     */
+    @Transactional
+    public Map<String, Household> households(Collection<String> addresses) {
+        Map<String, Household> byAddress = new HashMap<>();
+        for (Household household : householdRepository.findByAddressIn(addresses)) {
+            byAddress.put(household.getAddress(), household);
+        }
+        List<Household> created = new ArrayList<>();
+        for (String address : addresses) {
+            if (address != null && !byAddress.containsKey(address)) {
+                Household household = new Household(address);
+                byAddress.put(address, household);
+                created.add(household);
+            }
+        }
+        householdRepository.saveAll(created);
+        return byAddress;
+    }
+
+    private static String nameOf(Person person) {
+        return person.getFirstName() + '\u0000' + person.getLastName();
+    }
+
+    private static void validate(Object record, long row) {
+        boolean valid = record instanceof Person person
+                ? person.getFirstName() != null && person.getLastName() != null
+                : record instanceof FireStationMapping mapping && mapping.address() != null;
+        if (!valid) {
+            throw new InvalidRequestException(record instanceof Person
+                    ? "Record " + row + ": firstName and lastName are required"
+                    : "Record " + row + ": address is required");
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.finalproject1.subscription;
+
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.event.FireStationChangedEvent;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.service.AlertsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared change feed of the subscriptions.
+ * <p>
+ * Committed Person and FireStation changes only mark station numbers and addresses dirty; repeated
+ * changes of the same key coalesce. A scheduled flush then computes each dirty, subscribed key's
+ * result once, serializes it once and sends it to all of that key's subscribers, so the query load
+ * depends on what changed, not on how many clients listen. The flush only hands the events to the
+ * registry, which writes them on its own threads. A heartbeat comment keeps idle connections open
+ * through proxies and detects clients that went away.
+ */
+@Component
+public class AlertChangeDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertChangeDispatcher.class);
+
+    private final Set<Integer> dirtyStations = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyAddresses = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private AlertSubscriptionRegistry registry;
+
+    @Autowired
+    private AlertsService alertsService;
+
+    @Autowired
+    private FireStationRepository fireStationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Addresses per station lookup, which bounds its IN list
+    @Value("${alerts.writes.chunk-size:1000}")
+    private int chunkSize;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        markAddresses(event.person().getAddress(), event.previousAddress());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFireStationChanged(FireStationChangedEvent event) {
+        markAddresses(event.fireStation().getAddress(), event.previousAddress());
+        dirtyStations.add(event.fireStation().getStationNumber());
+        if (event.previousStationNumber() != null) {
+            dirtyStations.add(event.previousStationNumber());
+        }
+    }
+
+    /**
+     * Pushes the current result of every dirty key that has subscribers.
+     */
+    @Scheduled(fixedDelayString = "${alerts.subscriptions.flush-interval:1000}")
+    public void flush() {
+        Set<String> addresses = drain(dirtyAddresses);
+        Set<Integer> stations = drain(dirtyStations);
+        if (addresses.isEmpty() && stations.isEmpty()) {
+            return;
+        }
+        Set<Integer> subscribedStations = registry.subscribedStations();
+        if (!subscribedStations.isEmpty() && !addresses.isEmpty()) {
+            // Persons changing at an address affect the stations covering it: one lookup per chunk of addresses
+            List<String> lookup = new ArrayList<>(addresses);
+            for (int i = 0; i < lookup.size(); i += chunkSize) {
+                stations.addAll(fireStationRepository.findStationNumbersByAddressIn(
+                        lookup.subList(i, Math.min(lookup.size(), i + chunkSize))));
+            }
+        }
+        stations.retainAll(subscribedStations);
+        addresses.retainAll(registry.subscribedAddresses());
+
+        for (int stationNumber : stations) {
+            push(() -> registry.sendToStation(stationNumber, event("station", stationResult(stationNumber))));
+        }
+        for (String address : addresses) {
+            push(() -> registry.sendToAddress(address, event("address", addressResult(address))));
+        }
+        if (!stations.isEmpty() || !addresses.isEmpty()) {
+            logger.debug("Pushed changes of stations {} and addresses {}", stations, addresses);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${alerts.subscriptions.heartbeat-interval:30000}")
+    public void heartbeat() {
+        registry.sendToAll(SseEmitter.event().comment("heartbeat").build());
+    }
+
+    /**
+     * The /firestation response of a station, as pushed to its subscribers.
+     */
+    public Map<String, Object> stationResult(int stationNumber) {
+        List<Person> people = alertsService.getPeopleByFireStation(stationNumber);
+        StationHeadcount headcount = StationHeadcount.of(people);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stationNumber", stationNumber);
+        result.put("persons", people);
+        result.put("numberOfAdults", headcount.adults());
+        result.put("numberOfChildren", headcount.children());
+        return result;
+    }
+
+    /**
+     * The /fire response of an address, as pushed to its subscribers.
+     */
+    public Map<String, Object> addressResult(String address) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("address", address);
+        result.putAll(alertsService.getFireDetailsByAddress(address));
+        return result;
+    }
+
+    /**
+     * Builds an event once, with its data serialized once, for all recipients.
+     */
+    public Set<DataWithMediaType> event(String name, Object data) {
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + name + " event", e);
+        }
+    }
+
+    private void markAddresses(String address, String previousAddress) {
+        if (address != null) {
+            dirtyAddresses.add(address);
+        }
+        if (previousAddress != null) {
+            dirtyAddresses.add(previousAddress);
+        }
+    }
+
+    private static <T> Set<T> drain(Set<T> dirty) {
+        Set<T> drained = new HashSet<>();
+        for (Iterator<T> iterator = dirty.iterator(); iterator.hasNext(); ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    private static void push(Runnable send) {
+        try {
+            send.run();
+        } catch (RuntimeException e) {
+            logger.warn("Could not push subscription update", e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.finalproject1.subscription;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open Server-Sent Events subscriptions, by station number and by address.
+ * <p>
+ * An idle subscription is only an {@link SseEmitter} holding an async request; no thread or query is
+ * attached to it. Emitters remove themselves when they complete, time out or fail to send.
+ * <p>
+ * Events are written on a pool of sending threads, never on the caller's: a client reading slowly only
+ * delays its own events. Each subscriber's events are written in order, and at most
+ * {@code alerts.subscriptions.send-queue} of them wait; a subscriber falling further behind, or whose write
+ * blocks for longer than {@code alerts.subscriptions.send-timeout} ms, is disconnected and reconnects.
+ */
+@Component
+public class AlertSubscriptionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertSubscriptionRegistry.class);
+
+    private final Map<Integer, Set<Subscriber>> byStation = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byAddress = new ConcurrentHashMap<>();
+
+    @Value("${alerts.subscriptions.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${alerts.subscriptions.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${alerts.subscriptions.send-queue:16}")
+    private int sendQueue;
+
+    @Value("${alerts.subscriptions.send-timeout:5000}")
+    private long sendTimeout;
+
+    private ExecutorService sendExecutor;
+
+    @PostConstruct
+    void start() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(sendThreads, sendThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("sse-send-"));
+        executor.allowCoreThreadTimeOut(true);
+        sendExecutor = executor;
+    }
+
+    @PreDestroy
+    void stop() {
+        sendExecutor.shutdownNow();
+    }
+
+    public SseEmitter subscribeStation(int stationNumber) {
+        return register(byStation, stationNumber);
+    }
+
+    public SseEmitter subscribeAddress(String address) {
+        return register(byAddress, address);
+    }
+
+    public Set<Integer> subscribedStations() {
+        return byStation.keySet();
+    }
+
+    public Set<String> subscribedAddresses() {
+        return byAddress.keySet();
+    }
+
+    public int size() {
+        return byStation.values().stream().mapToInt(Set::size).sum()
+                + byAddress.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Sends an event to every subscriber of a station. Events are built once with
+     * {@link SseEmitter.SseEventBuilder#build()} and shared by all their recipients.
+     */
+    public void sendToStation(int stationNumber, Set<DataWithMediaType> event) {
+        send(byStation, stationNumber, event);
+    }
+
+    /**
+     * Sends an event to every subscriber of an address.
+     */
+    public void sendToAddress(String address, Set<DataWithMediaType> event) {
+        send(byAddress, address, event);
+    }
+
+    /**
+     * Sends an event to every subscriber, e.g. a heartbeat comment.
+     */
+    public void sendToAll(Set<DataWithMediaType> event) {
+        byStation.keySet().forEach(stationNumber -> send(byStation, stationNumber, event));
+        byAddress.keySet().forEach(address -> send(byAddress, address, event));
+    }
+
+    /**
+     * Disconnects the subscribers whose current write has been blocked for longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${alerts.subscriptions.send-timeout:5000}")
+    public void expireStalledSends() {
+        long now = System.nanoTime();
+        expireStalledSends(byStation, now);
+        expireStalledSends(byAddress, now);
+    }
+
+    private <K> SseEmitter register(Map<K, Set<Subscriber>> subscriptions, K key) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriptions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        Runnable remove = () -> remove(subscriptions, key, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        logger.debug("Subscribed to {}", key);
+        return emitter;
+    }
+
+    private <K> void send(Map<K, Set<Subscriber>> subscriptions, K key, Set<DataWithMediaType> event) {
+        Set<Subscriber> subscribers = subscriptions.get(key);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.pending.incrementAndGet() > sendQueue) {
+                logger.debug("Disconnecting a subscriber of {}: {} events behind", key, sendQueue);
+                disconnect(subscriptions, key, subscriber, new IOException("Subscriber too slow"));
+                continue;
+            }
+            subscriber.events.add(event);
+            if (subscriber.draining.compareAndSet(false, true)) {
+                sendExecutor.execute(() -> drain(subscriptions, key, subscriber));
+            }
+        }
+    }
+
+    // Writes the subscriber's queued events in order, on a sending thread
+    private <K> void drain(Map<K, Set<Subscriber>> subscriptions, K key, Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> event;
+            while ((event = subscriber.events.poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or emitter already completed
+                    disconnect(subscriptions, key, subscriber, e);
+                    return;
+                } finally {
+                    subscriber.sendingSince = 0;
+                    subscriber.pending.decrementAndGet();
+                }
+            }
+            subscriber.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared
+        } while (!subscriber.events.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private <K> void expireStalledSends(Map<K, Set<Subscriber>> subscriptions, long now) {
+        subscriptions.forEach((key, subscribers) -> {
+            for (Subscriber subscriber : subscribers) {
+                long since = subscriber.sendingSince;
+                if (since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeout)) {
+                    logger.debug("Disconnecting a subscriber of {}: write blocked for over {} ms", key, sendTimeout);
+                    disconnect(subscriptions, key, subscriber, new IOException("Send timed out"));
+                }
+            }
+        });
+    }
+
+    private static <K> void disconnect(Map<K, Set<Subscriber>> subscriptions, K key, Subscriber subscriber,
+                                       Exception cause) {
+        remove(subscriptions, key, subscriber);
+        subscriber.events.clear();
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    private static <K> void remove(Map<K, Set<Subscriber>> subscriptions, K key, Subscriber subscriber) {
+        subscriptions.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * An emitter with the events waiting to be written to it.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> events = new ConcurrentLinkedQueue<>();
+        // Events queued or being written, bounded by the send queue
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the current write started, 0 while none is running
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.config.CacheConfig;
+import com.example.finalproject1.event.ChangeType;
+import com.example.finalproject1.event.FireStationChangedEvent;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.service.AlertCacheEvictor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AlertCacheEvictor.
+ */
+class AlertCacheEvictorTest {
+
+    private static final String EVERGREEN = "742 Evergreen Terrace";
+    private static final String SCHOOL_LANE = "300 School Lane";
+
+    @Mock
+    private FireStationRepository fireStationRepository;
+
+    @InjectMocks
+    private AlertCacheEvictor alertCacheEvictor;
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cacheManager = new CaffeineCacheManager();
+        ReflectionTestUtils.setField(alertCacheEvictor, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(alertCacheEvictor, "chunkSize", 1000);
+
+        cacheManager.getCache(CacheConfig.FIRE).put(EVERGREEN, "fire");
+        cacheManager.getCache(CacheConfig.FIRE).put(SCHOOL_LANE, "fire");
+        cacheManager.getCache(CacheConfig.CHILD_ALERT).put(EVERGREEN, "children");
+        cacheManager.getCache(CacheConfig.COMMUNITY_EMAIL).put("Springfield", "emails");
+        cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).put(1, "people");
+        cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).put(2, "people");
+    }
+
+    /**
+     * Test that a person change evicts its address, its city and the stations covering the address only.
+     */
+    @Test
+    void testPersonChanged() {
+        when(fireStationRepository.findStationNumbersByAddressIn(List.of(EVERGREEN))).thenReturn(List.of(1));
+        Person homer = new Person("Homer", "Simpson", EVERGREEN, "Springfield",
+                "555-1234", "homer.simpson@example.com", 42,
+                List.of("aspirin:100mg"), List.of("none"));
+
+        alertCacheEvictor.onPersonChanged(new PersonChangedEvent(homer, ChangeType.SAVED));
+
+        assertNull(cacheManager.getCache(CacheConfig.FIRE).get(EVERGREEN));
+        assertNull(cacheManager.getCache(CacheConfig.CHILD_ALERT).get(EVERGREEN));
+        assertNull(cacheManager.getCache(CacheConfig.COMMUNITY_EMAIL).get("Springfield"));
+        assertNull(cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).get(1));
+
+        assertNotNull(cacheManager.getCache(CacheConfig.FIRE).get(SCHOOL_LANE));
+        assertNotNull(cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).get(2));
+    }
+
+    /**
+     * Test that the changes of a transaction are evicted once it commits, with a single station lookup.
+     */
+    @Test
+    void testPersonsChanged_EvictedAfterCommit() {
+        when(fireStationRepository.findStationNumbersByAddressIn(anyCollection())).thenReturn(List.of(1, 2));
+        Person homer = new Person("Homer", "Simpson", EVERGREEN, "Springfield",
+                "555-1234", "homer.simpson@example.com", 42, List.of(), List.of());
+        Person nelson = new Person("Nelson", "Muntz", SCHOOL_LANE, "Springfield",
+                "555-8903", "nelson.muntz@example.com", 14, List.of(), List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            alertCacheEvictor.onPersonChanged(new PersonChangedEvent(homer, ChangeType.SAVED));
+            alertCacheEvictor.onPersonChanged(new PersonChangedEvent(nelson, ChangeType.SAVED));
+
+            assertNotNull(cacheManager.getCache(CacheConfig.FIRE).get(EVERGREEN));
+            verifyNoInteractions(fireStationRepository);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cacheManager.getCache(CacheConfig.FIRE).get(EVERGREEN));
+        assertNull(cacheManager.getCache(CacheConfig.FIRE).get(SCHOOL_LANE));
+        assertNull(cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).get(1));
+        assertNull(cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).get(2));
+        verify(fireStationRepository, times(1)).findStationNumbersByAddressIn(anyCollection());
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    /**
+     * Test that moving an address to another station evicts both the old and the new station.
+     */
+    @Test
+    void testFireStationMoved() {
+        FireStation fs = new FireStation();
+        fs.setAddress(SCHOOL_LANE);
+        fs.setStationNumber(2);
+
+        alertCacheEvictor.onFireStationChanged(new FireStationChangedEvent(fs, ChangeType.SAVED, SCHOOL_LANE, 1));
+
+        assertNull(cacheManager.getCache(CacheConfig.FIRE).get(SCHOOL_LANE));
+        assertNull(cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).get(1));
+        assertNull(cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).get(2));
+
+        assertNotNull(cacheManager.getCache(CacheConfig.FIRE).get(EVERGREEN));
+        assertNotNull(cacheManager.getCache(CacheConfig.CHILD_ALERT).get(EVERGREEN));
+    }
+
+    /**
+     * Test that no station lookup is made while the station caches are empty.
+     */
+    @Test
+    void testPersonChanged_ColdStationCaches() {
+        cacheManager.getCache(CacheConfig.PEOPLE_BY_STATION).clear();
+        Person bart = new Person("Bart", "Simpson", EVERGREEN, "Springfield",
+                "555-1236", "bart.simpson@example.com", 12,
+                Collections.emptyList(), Collections.emptyList());
+
+        alertCacheEvictor.onPersonChanged(new PersonChangedEvent(bart, ChangeType.SAVED));
+
+        assertNull(cacheManager.getCache(CacheConfig.CHILD_ALERT).get(EVERGREEN));
+        verifyNoInteractions(fireStationRepository);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.event.ChangeType;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.service.AlertsService;
+import com.example.finalproject1.subscription.AlertChangeDispatcher;
+import com.example.finalproject1.subscription.AlertSubscriptionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AlertChangeDispatcher.
+ */
+class AlertChangeDispatcherTest {
+
+    private static final String EVERGREEN = "742 Evergreen Terrace";
+
+    @Mock
+    private AlertsService alertsService;
+
+    @Mock
+    private FireStationRepository fireStationRepository;
+
+    @InjectMocks
+    private AlertChangeDispatcher dispatcher;
+
+    private AlertSubscriptionRegistry registry;
+
+    private Person homer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new AlertSubscriptionRegistry();
+        ReflectionTestUtils.setField(registry, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(registry, "sendThreads", 1);
+        ReflectionTestUtils.setField(registry, "sendQueue", 16);
+        ReflectionTestUtils.setField(registry, "sendTimeout", 5000L);
+        ReflectionTestUtils.invokeMethod(registry, "start");
+        ReflectionTestUtils.setField(dispatcher, "registry", registry);
+        ReflectionTestUtils.setField(dispatcher, "chunkSize", 1000);
+        ReflectionTestUtils.setField(dispatcher, "objectMapper", new ObjectMapper());
+        homer = new Person("Homer", "Simpson", EVERGREEN, "Springfield",
+                "555-1234", "homer.simpson@example.com", 42,
+                List.of("aspirin:100mg"), List.of("none"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(registry, "stop");
+    }
+
+    /**
+     * Test that changes are coalesced and each subscribed station is computed once for all its subscribers.
+     */
+    @Test
+    void testFlush_OneResultPerStation() {
+        registry.subscribeStation(1);
+        registry.subscribeStation(1);
+        registry.subscribeStation(1);
+        when(fireStationRepository.findStationNumbersByAddressIn(List.of(EVERGREEN))).thenReturn(List.of(1, 2));
+        when(alertsService.getPeopleByFireStation(1)).thenReturn(List.of(homer));
+
+        dispatcher.onPersonChanged(new PersonChangedEvent(homer, ChangeType.SAVED));
+        dispatcher.onPersonChanged(new PersonChangedEvent(homer, ChangeType.SAVED));
+        dispatcher.flush();
+
+        verify(fireStationRepository, times(1)).findStationNumbersByAddressIn(anyCollection());
+        verify(alertsService, times(1)).getPeopleByFireStation(1);
+        verify(alertsService, never()).getPeopleByFireStation(2);
+        verify(alertsService, never()).getFireDetailsByAddress(EVERGREEN);
+    }
+
+    /**
+     * Test that the stations of the changed addresses are looked up in chunks of addresses.
+     */
+    @Test
+    void testFlush_StationLookupChunked() {
+        ReflectionTestUtils.setField(dispatcher, "chunkSize", 2);
+        registry.subscribeStation(1);
+        when(fireStationRepository.findStationNumbersByAddressIn(anyCollection())).thenReturn(List.of(1));
+        when(alertsService.getPeopleByFireStation(1)).thenReturn(List.of(homer));
+
+        for (String address : List.of(EVERGREEN, "300 School Lane", "1 Lonely Lane")) {
+            dispatcher.onPersonChanged(new PersonChangedEvent(new Person("Homer", "Simpson", address, "Springfield",
+                    "555-1234", "homer.simpson@example.com", 42, List.of(), List.of()), ChangeType.SAVED));
+        }
+        dispatcher.flush();
+
+        verify(fireStationRepository, times(2)).findStationNumbersByAddressIn(anyCollection());
+        verify(alertsService, times(1)).getPeopleByFireStation(1);
+    }
+
+    /**
+     * Test that nothing is queried when nobody subscribed to what changed.
+     */
+    @Test
+    void testFlush_NoSubscribers() {
+        dispatcher.onPersonChanged(new PersonChangedEvent(homer, ChangeType.SAVED));
+        dispatcher.flush();
+
+        verifyNoInteractions(fireStationRepository);
+        verify(alertsService, never()).getPeopleByFireStation(anyInt());
+    }
+
+    /**
+     * Test that an address subscriber gets the /fire result once the address changed.
+     */
+    @Test
+    void testFlush_AddressSubscriber() {
+        registry.subscribeAddress(EVERGREEN);
+        when(alertsService.getFireDetailsByAddress(EVERGREEN)).thenReturn(Collections.emptyMap());
+
+        dispatcher.onPersonChanged(new PersonChangedEvent(homer, ChangeType.SAVED));
+        dispatcher.flush();
+        dispatcher.flush();
+
+        verify(alertsService, times(1)).getFireDetailsByAddress(EVERGREEN);
+        verifyNoInteractions(fireStationRepository);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.event.ChangeType;
+import com.example.finalproject1.event.FireStationChangedEvent;
+import com.example.finalproject1.event.PersonChangedEvent;
+import com.example.finalproject1.index.AlertIndex;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlertIndex.
+ */
+class AlertIndexTest {
+
+    private static final String EVERGREEN = "742 Evergreen Terrace";
+    private static final String SCHOOL_LANE = "300 School Lane";
+
+    private AlertIndex alertIndex;
+    private Person homer;
+    private Person bart;
+    private Person nelson;
+
+    @BeforeEach
+    void setUp() {
+        homer = person(1L, "Homer", EVERGREEN, 42);
+        bart = person(2L, "Bart", EVERGREEN, 12);
+        nelson = person(3L, "Nelson", SCHOOL_LANE, 14);
+
+        alertIndex = new AlertIndex();
+        alertIndex.load(List.of(station(1L, EVERGREEN, 1), station(2L, SCHOOL_LANE, 2)),
+                List.of(homer, bart, nelson));
+    }
+
+    /**
+     * Test lookups against the initially loaded data.
+     */
+    @Test
+    void testLookups() {
+        assertTrue(alertIndex.isReady());
+        assertEquals(List.of("Homer", "Bart"), names(alertIndex.findPeopleByStation(1)));
+        assertTrue(alertIndex.findPeopleByStation(99).isEmpty());
+        assertEquals(OptionalInt.of(2), alertIndex.findStationNumber(SCHOOL_LANE));
+        assertEquals(OptionalInt.empty(), alertIndex.findStationNumber("123 Unknown Street"));
+
+        Map<String, List<Person>> households = alertIndex.findHouseholdsByStations(List.of(1, 2));
+        assertEquals(2, households.size());
+        assertEquals(List.of("Nelson"), names(households.get(SCHOOL_LANE)));
+    }
+
+    /**
+     * Test that a person moving house leaves the old household and joins the new one.
+     */
+    @Test
+    void testPersonMoved() {
+        Person moved = person(2L, "Bart", SCHOOL_LANE, 12);
+
+        alertIndex.onPersonChanged(new PersonChangedEvent(moved, ChangeType.SAVED));
+
+        assertEquals(List.of("Homer"), names(alertIndex.findResidents(EVERGREEN)));
+        assertEquals(List.of("Bart", "Nelson"), names(alertIndex.findResidents(SCHOOL_LANE)));
+    }
+
+    /**
+     * Test that deleting the last resident removes the household.
+     */
+    @Test
+    void testPersonDeleted() {
+        alertIndex.onPersonChanged(new PersonChangedEvent(nelson, ChangeType.DELETED));
+
+        assertTrue(alertIndex.findResidents(SCHOOL_LANE).isEmpty());
+        assertFalse(alertIndex.findHouseholdsByStations(List.of(2)).containsKey(SCHOOL_LANE));
+    }
+
+    /**
+     * Test that reassigning an address to another station is reflected in station lookups.
+     */
+    @Test
+    void testFireStationChanged() {
+        alertIndex.onFireStationChanged(new FireStationChangedEvent(station(2L, SCHOOL_LANE, 1), ChangeType.SAVED));
+
+        assertEquals(List.of("Homer", "Bart", "Nelson"), names(alertIndex.findPeopleByStation(1)));
+        assertTrue(alertIndex.findPeopleByStation(2).isEmpty());
+        assertEquals(OptionalInt.of(1), alertIndex.findStationNumber(SCHOOL_LANE));
+    }
+
+    /**
+     * Test that later changes to a written entity do not leak into the index.
+     */
+    @Test
+    void testIndexHoldsCopies() {
+        homer.setAddress(SCHOOL_LANE);
+
+        assertEquals(List.of("Homer", "Bart"), names(alertIndex.findResidents(EVERGREEN)));
+    }
+
+    private static Person person(Long id, String firstName, String address, int age) {
+        Person person = new Person(firstName, "Simpson", address, "Springfield",
+                "555-0000", firstName.toLowerCase() + "@example.com", age,
+                Collections.emptyList(), Collections.emptyList());
+        person.setId(id);
+        return person;
+    }
+
+    private static FireStation station(Long id, String address, int stationNumber) {
+        FireStation fs = new FireStation();
+        fs.setId(id);
+        fs.setAddress(address);
+        fs.setStationNumber(stationNumber);
+        return fs;
+    }
+
+    private static List<String> names(List<Person> persons) {
+        return persons.stream().map(Person::getFirstName).toList();
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.finalproject1;
 
 import com.example.finalproject1.controller.AlertsController;
+import com.example.finalproject1.dto.KeysetPage;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationHeadcount;
 import com.example.finalproject1.model.Person;
 import com.example.finalproject1.service.AlertsService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -12,11 +18,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.*;
-
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AlertsController.class)
@@ -60,12 +77,21 @@ class AlertsControllerTest {
         long numberOfAdults = 1;
         long numberOfChildren = 0;
 
-        when(alertsService.getPeopleByFireStation(stationNumber)).thenReturn(people);
+        doAnswer(invocation -> {
+            Consumer<Person> sink = invocation.getArgument(1);
+            people.forEach(sink);
+            return null;
+        }).when(alertsService).streamPeopleByFireStation(eq(stationNumber), any());
 
-        mockMvc.perform(get(FIRESTATION_ENDPOINT)
+        MvcResult result = mockMvc.perform(get(FIRESTATION_ENDPOINT)
                         .param("stationNumber", String.valueOf(stationNumber))
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.persons[0].firstName").value("Homer"))
                 .andExpect(jsonPath("$.numberOfAdults").value(numberOfAdults))
                 .andExpect(jsonPath("$.numberOfChildren").value(numberOfChildren));
@@ -74,15 +100,40 @@ class AlertsControllerTest {
     @Test
     void testGetPeopleByFireStation_NotFound() throws Exception {
         int stationNumber = 99;
-        List<Person> people = Collections.emptyList();
 
-        when(alertsService.getPeopleByFireStation(stationNumber)).thenReturn(people);
+        MvcResult result = mockMvc.perform(get(FIRESTATION_ENDPOINT)
+                        .param("stationNumber", String.valueOf(stationNumber))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.persons").isEmpty())
+                .andExpect(jsonPath("$.numberOfAdults").value(0))
+                .andExpect(jsonPath("$.numberOfChildren").value(0));
+    }
 
-        mockMvc.perform(get(FIRESTATION_ENDPOINT)
+    @Test
+    void testGetPeopleByFireStation_CountsOnly() throws Exception {
+        int stationNumber = 1;
+
+        when(alertsService.getHeadcountByFireStation(stationNumber)).thenReturn(new StationHeadcount(3L, 2L));
+
+        MvcResult result = mockMvc.perform(get(FIRESTATION_ENDPOINT)
                         .param("stationNumber", String.valueOf(stationNumber))
+                        .param("countsOnly", "true")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.persons").isEmpty());
+                .andExpect(jsonPath("$.persons").doesNotExist())
+                .andExpect(jsonPath("$.numberOfAdults").value(3))
+                .andExpect(jsonPath("$.numberOfChildren").value(2));
+
+        verify(alertsService, never()).streamPeopleByFireStation(eq(stationNumber), any());
     }
 
     @Test
@@ -98,8 +149,8 @@ class AlertsControllerTest {
     void testGetChildAlert_Found() throws Exception {
         String address = "742 Evergreen Terrace";
         Map<String, Object> response = new HashMap<>();
-        response.put("children", List.of(bart));
-        response.put("otherResidents", List.of(homer));
+        response.put("children", List.of(ResidentSummary.of(bart)));
+        response.put("otherResidents", List.of(ResidentSummary.of(homer)));
 
         when(alertsService.getChildrenByAddress(address)).thenReturn(response);
 
@@ -108,6 +159,8 @@ class AlertsControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.children[0].firstName").value("Bart"))
+                .andExpect(jsonPath("$.children[0].age").value(12))
+                .andExpect(jsonPath("$.children[0].medications").doesNotExist())
                 .andExpect(jsonPath("$.otherResidents[0].firstName").value("Homer"));
     }
 
@@ -169,16 +222,22 @@ class AlertsControllerTest {
                 "555-8903", "nelson.muntz@example.com", 14,
                 Collections.emptyList(), List.of("peanut"));
 
-        Map<String, List<Person>> households = new HashMap<>();
-        households.put(address1, List.of(homer, bart));
-        households.put(address2, List.of(nelson));
+        doAnswer(invocation -> {
+            BiConsumer<String, List<Person>> sink = invocation.getArgument(1);
+            sink.accept(address1, List.of(homer, bart));
+            sink.accept(address2, List.of(nelson));
+            return null;
+        }).when(alertsService).streamFloodHouseholdsByStations(eq(stationNumbers), any());
 
-        when(alertsService.getFloodDetailsByStations(stationNumbers)).thenReturn(households);
-
-        mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
+        MvcResult result = mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
                         .param("stations", stationsParam)
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.households['742 Evergreen Terrace'][0].firstName").value("Homer"))
                 .andExpect(jsonPath("$.households['742 Evergreen Terrace'][1].firstName").value("Bart"))
                 .andExpect(jsonPath("$.households['300 School Lane'][0].firstName").value("Nelson"));
@@ -187,15 +246,207 @@ class AlertsControllerTest {
     @Test
     void testGetFloodDetailsByStations_NotFound() throws Exception {
         String stationsParam = "99";
-        List<Integer> stationNumbers = List.of(99);
-        Map<String, List<Person>> households = Collections.emptyMap();
-
-        when(alertsService.getFloodDetailsByStations(stationNumbers)).thenReturn(households);
 
-        mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
+        MvcResult result = mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
                         .param("stations", stationsParam)
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().json("{}"))
                 .andExpect(jsonPath("$.households").doesNotExist());
     }
+
+    @Test
+    void testGetCommunityEmails_Page() throws Exception {
+        String city = "Springfield";
+
+        when(alertsService.getCommunityEmailsPage(city, 10L, 2))
+                .thenReturn(new KeysetPage<>(List.of("homer.simpson@example.com", "bart.simpson@example.com"), 12L));
+
+        mockMvc.perform(get(COMMUNITY_EMAIL_ENDPOINT)
+                        .param("city", city)
+                        .param("after", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0]").value("homer.simpson@example.com"))
+                .andExpect(jsonPath("$.items[1]").value("bart.simpson@example.com"))
+                .andExpect(jsonPath("$.next").value(12));
+    }
+
+    @Test
+    void testGetFloodDetailsByStations_Smile() throws Exception {
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+        doAnswer(invocation -> {
+            BiConsumer<String, List<Person>> sink = invocation.getArgument(1);
+            sink.accept("742 Evergreen Terrace", List.of(homer, bart));
+            return null;
+        }).when(alertsService).streamFloodHouseholdsByStations(eq(List.of(1)), any());
+
+        MvcResult result = mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
+                        .param("stations", "1")
+                        .accept(smile))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode households = new ObjectMapper(new SmileFactory()).readTree(body).get("households");
+        assertEquals("Bart", households.get("742 Evergreen Terrace").get(1).get("firstName").asText());
+    }
+
+    @Test
+    void testGetFloodDetailsByStations_QualityValues() throws Exception {
+        doAnswer(invocation -> {
+            BiConsumer<String, List<Person>> sink = invocation.getArgument(1);
+            sink.accept("742 Evergreen Terrace", List.of(homer));
+            return null;
+        }).when(alertsService).streamFloodHouseholdsByStations(eq(List.of(1)), any());
+
+        MvcResult result = mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
+                        .param("stations", "1")
+                        .header("Accept", "application/json;q=0.1, application/cbor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode households = new ObjectMapper(new CBORFactory()).readTree(body).get("households");
+        assertEquals("Homer", households.get("742 Evergreen Terrace").get(0).get("firstName").asText());
+
+        // q=0 excludes JSON even though the wildcard would allow it
+        result = mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
+                        .param("stations", "1")
+                        .header("Accept", "application/json;q=0, */*;q=0.5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.parseMediaType("application/x-jackson-smile")));
+    }
+
+    @Test
+    void testGetPeopleByFireStation_OnlyExcludedTypes() throws Exception {
+        mockMvc.perform(get(FIRESTATION_ENDPOINT)
+                        .param("stationNumber", "1")
+                        .header("Accept", "application/json;q=0"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testGetFloodDetailsByStations_NotAcceptable() throws Exception {
+        mockMvc.perform(get(FLOOD_STATIONS_ENDPOINT)
+                        .param("stations", "1")
+                        .accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+
+        verify(alertsService, never()).streamFloodHouseholdsByStations(any(), any());
+    }
+
+    @Test
+    void testGetPeopleByFireStation_NotAcceptable() throws Exception {
+        mockMvc.perform(get(FIRESTATION_ENDPOINT)
+                        .param("stationNumber", "1")
+                        .header("Accept", "text/csv"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testGetChildAlert_Cbor() throws Exception {
+        String address = "742 Evergreen Terrace";
+        Map<String, Object> response = Map.of("children", List.of(new ResidentSummary("Bart", "Simpson", 12)));
+
+        when(alertsService.getChildrenByAddress(address)).thenReturn(response);
+
+        byte[] body = mockMvc.perform(get(CHILD_ALERT_ENDPOINT)
+                        .param("address", address)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode children = new ObjectMapper(new CBORFactory()).readTree(body).get("children");
+        assertEquals("Bart", children.get(0).get("firstName").asText());
+    }
+
+    @Test
+    void testGetCommunityEmails_Ndjson() throws Exception {
+        String city = "Springfield";
+
+        doAnswer(invocation -> {
+            Consumer<String> sink = invocation.getArgument(1);
+            sink.accept("homer.simpson@example.com");
+            sink.accept("bart.simpson@example.com");
+            return null;
+        }).when(alertsService).streamCommunityEmails(eq(city), any());
+
+        MvcResult result = mockMvc.perform(get(COMMUNITY_EMAIL_ENDPOINT)
+                        .param("city", city)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("\"homer.simpson@example.com\"\n\"bart.simpson@example.com\"\n"));
+    }
+
+    @Test
+    void testGetFireDetails_Batch() throws Exception {
+        List<String> addresses = List.of("742 Evergreen Terrace", "123 Unknown Street");
+        Map<String, Map<String, Object>> response = new LinkedHashMap<>();
+        response.put("742 Evergreen Terrace", Map.of("stationNumber", 1, "residents", List.of(homer, bart)));
+        response.put("123 Unknown Street", Map.of());
+
+        when(alertsService.getFireDetailsByAddresses(addresses)).thenReturn(response);
+
+        mockMvc.perform(post(FIRE_ENDPOINT + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(addresses)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['742 Evergreen Terrace'].stationNumber").value(1))
+                .andExpect(jsonPath("$['742 Evergreen Terrace'].residents[1].firstName").value("Bart"))
+                .andExpect(jsonPath("$['123 Unknown Street']").isEmpty());
+    }
+
+    @Test
+    void testGetChildAlert_Batch() throws Exception {
+        List<String> addresses = List.of("742 Evergreen Terrace", "123 Unknown Street");
+        Map<String, Map<String, Object>> response = new LinkedHashMap<>();
+        response.put("742 Evergreen Terrace", Map.of(
+                "children", List.of(new ResidentSummary("Bart", "Simpson", 12)),
+                "otherResidents", List.of(new ResidentSummary("Homer", "Simpson", 42))));
+        response.put("123 Unknown Street", Map.of());
+
+        when(alertsService.getChildrenByAddresses(addresses)).thenReturn(response);
+
+        mockMvc.perform(post(CHILD_ALERT_ENDPOINT + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(addresses)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['742 Evergreen Terrace'].children[0].firstName").value("Bart"))
+                .andExpect(jsonPath("$['742 Evergreen Terrace'].otherResidents[0].firstName").value("Homer"))
+                .andExpect(jsonPath("$['123 Unknown Street']").isEmpty());
+    }
+
+    @Test
+    void testGetPeopleByStations_BatchTooLarge() throws Exception {
+        List<Integer> stationNumbers = new ArrayList<>();
+        for (int stationNumber = 1; stationNumber <= 1001; stationNumber++) {
+            stationNumbers.add(stationNumber);
+        }
+
+        mockMvc.perform(post(FIRESTATION_ENDPOINT + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stationNumbers)))
+                .andExpect(status().isBadRequest());
+
+        verify(alertsService, never()).getPeopleByFireStations(any());
+    }
 }
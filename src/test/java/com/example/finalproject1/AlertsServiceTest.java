@@ -1,16 +1,27 @@
 package com.example.finalproject1;
 
-import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.dto.KeysetPage;
+import com.example.finalproject1.dto.PersonEmail;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationCoverage;
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.model.Household;
 import com.example.finalproject1.model.Person;
 import com.example.finalproject1.repository.FireStationRepository;
 import com.example.finalproject1.repository.PersonRepository;
 import com.example.finalproject1.service.AlertsService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,12 +38,19 @@ class AlertsServiceTest {
     @Mock
     private FireStationRepository fireStationRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private AlertsService alertsService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(alertsService, "stationsPerQuery", 4);
     }
 
     /**
@@ -41,17 +59,11 @@ class AlertsServiceTest {
     @Test
     void testGetPeopleByFireStation_Found() {
         int stationNumber = 1;
-        FireStation fs = new FireStation();
-        fs.setAddress("742 Evergreen Terrace");
-        fs.setStationNumber(stationNumber);
-
-        when(fireStationRepository.findByStationNumber(stationNumber)).thenReturn(List.of(fs));
-
         Person person = new Person("Homer", "Simpson", "742 Evergreen Terrace", "Springfield",
                 "555-1234", "homer.simpson@example.com", 42,
                 List.of("aspirin:100mg"), List.of("none"));
 
-        when(personRepository.findByAddressIn(List.of("742 Evergreen Terrace"))).thenReturn(List.of(person));
+        when(personRepository.findByStationNumber(stationNumber)).thenReturn(List.of(person));
 
         List<Person> result = alertsService.getPeopleByFireStation(stationNumber);
 
@@ -66,7 +78,7 @@ class AlertsServiceTest {
     @Test
     void testGetPeopleByFireStation_NotFound() {
         int stationNumber = 99;
-        when(fireStationRepository.findByStationNumber(stationNumber)).thenReturn(Collections.emptyList());
+        when(personRepository.findByStationNumber(stationNumber)).thenReturn(Collections.emptyList());
 
         List<Person> result = alertsService.getPeopleByFireStation(stationNumber);
 
@@ -74,20 +86,30 @@ class AlertsServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    /**
+     * Test getHeadcountByFireStation returns the aggregate counts from the repository.
+     */
+    @Test
+    void testGetHeadcountByFireStation() {
+        int stationNumber = 1;
+        when(personRepository.countByStationNumber(stationNumber)).thenReturn(new StationHeadcount(4L, 1L));
+
+        StationHeadcount headcount = alertsService.getHeadcountByFireStation(stationNumber);
+
+        assertEquals(4L, headcount.adults());
+        assertEquals(1L, headcount.children());
+        verify(personRepository, never()).findByAddressIn(anyList());
+    }
+
     /**
      * Test getCommunityEmails with existing city.
      */
     @Test
     void testGetCommunityEmails_Found() {
         String city = "Springfield";
-        Person person1 = new Person("Homer", "Simpson", "742 Evergreen Terrace", city,
-                "555-1234", "homer.simpson@example.com", 42,
-                List.of("aspirin:100mg"), List.of("none"));
-        Person person2 = new Person("Marge", "Simpson", "742 Evergreen Terrace", city,
-                "555-1235", "marge.simpson@example.com", 40,
-                List.of("vitaminC:500mg"), List.of("shellfish"));
 
-        when(personRepository.findByCity(city)).thenReturn(List.of(person1, person2));
+        when(personRepository.findEmailsByCity(city))
+                .thenReturn(List.of("homer.simpson@example.com", "marge.simpson@example.com"));
 
         List<String> emails = alertsService.getCommunityEmails(city);
 
@@ -95,6 +117,7 @@ class AlertsServiceTest {
         assertEquals(2, emails.size());
         assertTrue(emails.contains("homer.simpson@example.com"));
         assertTrue(emails.contains("marge.simpson@example.com"));
+        verify(personRepository, never()).findByCity(anyString());
     }
 
     /**
@@ -103,7 +126,7 @@ class AlertsServiceTest {
     @Test
     void testGetCommunityEmails_NotFound() {
         String city = "Nowhere";
-        when(personRepository.findByCity(city)).thenReturn(Collections.emptyList());
+        when(personRepository.findEmailsByCity(city)).thenReturn(Collections.emptyList());
 
         List<String> emails = alertsService.getCommunityEmails(city);
 
@@ -111,31 +134,54 @@ class AlertsServiceTest {
         assertTrue(emails.isEmpty());
     }
 
+    /**
+     * Test that a full page of community emails returns the id of its last row as cursor.
+     */
+    @Test
+    void testGetCommunityEmailsPage_FullPage() {
+        String city = "Springfield";
+        when(personRepository.findEmailPageByCity(city, 0L, Limit.of(2))).thenReturn(List.of(
+                new PersonEmail(3L, "homer.simpson@example.com"),
+                new PersonEmail(7L, "marge.simpson@example.com")));
+
+        KeysetPage<String> page = alertsService.getCommunityEmailsPage(city, null, 2);
+
+        assertEquals(List.of("homer.simpson@example.com", "marge.simpson@example.com"), page.items());
+        assertEquals(7L, page.next());
+    }
+
+    /**
+     * Test that a short page of community emails is the last one.
+     */
+    @Test
+    void testGetCommunityEmailsPage_LastPage() {
+        String city = "Springfield";
+        when(personRepository.findEmailPageByCity(city, 7L, Limit.of(2))).thenReturn(List.of(
+                new PersonEmail(9L, "bart.simpson@example.com")));
+
+        KeysetPage<String> page = alertsService.getCommunityEmailsPage(city, 7L, 2);
+
+        assertEquals(List.of("bart.simpson@example.com"), page.items());
+        assertNull(page.next());
+    }
+
     /**
      * Test getChildrenByAddress with existing address.
      */
     @Test
     void testGetChildrenByAddress_Found() {
         String address = "742 Evergreen Terrace";
-        Person child = new Person("Bart", "Simpson", address, "Springfield",
-                "555-1236", "bart.simpson@example.com", 12,
-                Collections.emptyList(), Collections.emptyList());
-        Person adult = new Person("Homer", "Simpson", address, "Springfield",
-                "555-1234", "homer.simpson@example.com", 42,
-                List.of("aspirin:100mg"), List.of("none"));
-        Map<String, Object> expectedResponse = new HashMap<>();
-        expectedResponse.put("children", List.of(child));
-        expectedResponse.put("otherResidents", List.of(adult));
+        ResidentSummary child = new ResidentSummary("Bart", "Simpson", 12);
+        ResidentSummary adult = new ResidentSummary("Homer", "Simpson", 42);
 
-        when(personRepository.findByAddress(address)).thenReturn(List.of(child, adult));
+        when(personRepository.findResidentSummariesByAddress(address)).thenReturn(List.of(child, adult));
 
         Map<String, Object> result = alertsService.getChildrenByAddress(address);
 
         assertNotNull(result);
-        assertTrue(result.containsKey("children"));
-        assertTrue(result.containsKey("otherResidents"));
-        assertEquals(1, ((List<Person>) result.get("children")).size());
-        assertEquals(1, ((List<Person>) result.get("otherResidents")).size());
+        assertEquals(List.of(child), result.get("children"));
+        assertEquals(List.of(adult), result.get("otherResidents"));
+        verify(personRepository, never()).findByAddress(anyString());
     }
 
     /**
@@ -144,7 +190,7 @@ class AlertsServiceTest {
     @Test
     void testGetChildrenByAddress_NotFound() {
         String address = "123 Unknown Street";
-        when(personRepository.findByAddress(address)).thenReturn(Collections.emptyList());
+        when(personRepository.findResidentSummariesByAddress(address)).thenReturn(Collections.emptyList());
 
         Map<String, Object> result = alertsService.getChildrenByAddress(address);
 
@@ -158,23 +204,15 @@ class AlertsServiceTest {
     @Test
     void testGetPhoneNumbersByFireStation_Found() {
         int stationNumber = 1;
-        FireStation fs = new FireStation();
-        fs.setAddress("742 Evergreen Terrace");
-        fs.setStationNumber(stationNumber);
 
-        when(fireStationRepository.findByStationNumber(stationNumber)).thenReturn(List.of(fs));
-
-        Person person = new Person("Homer", "Simpson", "742 Evergreen Terrace", "Springfield",
-                "555-1234", "homer.simpson@example.com", 42,
-                List.of("aspirin:100mg"), List.of("none"));
-
-        when(personRepository.findByAddressIn(List.of("742 Evergreen Terrace"))).thenReturn(List.of(person));
+        when(personRepository.findPhonesByStationNumber(stationNumber)).thenReturn(List.of("555-1234"));
 
         List<String> phoneNumbers = alertsService.getPhoneNumbersByFireStation(stationNumber);
 
         assertNotNull(phoneNumbers);
         assertEquals(1, phoneNumbers.size());
         assertEquals("555-1234", phoneNumbers.get(0));
+        verify(personRepository, never()).findByAddressIn(anyList());
     }
 
     /**
@@ -183,7 +221,7 @@ class AlertsServiceTest {
     @Test
     void testGetPhoneNumbersByFireStation_NotFound() {
         int stationNumber = 99;
-        when(fireStationRepository.findByStationNumber(stationNumber)).thenReturn(Collections.emptyList());
+        when(personRepository.findPhonesByStationNumber(stationNumber)).thenReturn(Collections.emptyList());
 
         List<String> phoneNumbers = alertsService.getPhoneNumbersByFireStation(stationNumber);
 
@@ -198,28 +236,31 @@ class AlertsServiceTest {
     void testGetFireDetailsByAddress_Found() {
         String address = "742 Evergreen Terrace";
         int stationNumber = 1;
-        FireStation fs = new FireStation();
-        fs.setAddress(address);
-        fs.setStationNumber(stationNumber);
-        Person person = new Person("Homer", "Simpson", address, "Springfield",
-                "555-1234", "homer.simpson@example.com", 42,
-                List.of("aspirin:100mg"), List.of("none"));
-
-        when(personRepository.findByAddress(address)).thenReturn(List.of(person));
-        when(fireStationRepository.findByAddress(address)).thenReturn(List.of(fs));
-
-        Map<String, Object> expectedResponse = new HashMap<>();
-        expectedResponse.put("stationNumber", stationNumber);
-        expectedResponse.put("residents", List.of(person));
+        List<Object[]> rows = List.of(
+                new Object[]{stationNumber, 1L, "Homer", "Simpson", address, "Springfield",
+                        "555-1234", "homer.simpson@example.com", 42, "aspirin:100mg", null},
+                new Object[]{stationNumber, 1L, "Homer", "Simpson", address, "Springfield",
+                        "555-1234", "homer.simpson@example.com", 42, "donuts:12", null},
+                new Object[]{stationNumber, 2L, "Bart", "Simpson", address, "Springfield",
+                        "555-1236", "bart.simpson@example.com", 12, null, null},
+                new Object[]{stationNumber, 1L, "Homer", "Simpson", address, "Springfield",
+                        "555-1234", "homer.simpson@example.com", 42, null, "none"});
+
+        when(personRepository.findFireDetailRowsByAddressIn(List.of(address))).thenReturn(rows);
 
         Map<String, Object> result = alertsService.getFireDetailsByAddress(address);
 
         assertNotNull(result);
-        assertTrue(result.containsKey("stationNumber"));
-        assertTrue(result.containsKey("residents"));
         assertEquals(stationNumber, result.get("stationNumber"));
-        assertEquals(1, ((List<Person>) result.get("residents")).size());
-        assertEquals("Homer", ((List<Person>) result.get("residents")).get(0).getFirstName());
+        List<Person> residents = (List<Person>) result.get("residents");
+        assertEquals(2, residents.size());
+        assertEquals("Homer", residents.get(0).getFirstName());
+        assertEquals(List.of("aspirin:100mg", "donuts:12"), residents.get(0).getMedications());
+        assertEquals(List.of("none"), residents.get(0).getAllergies());
+        assertEquals("Bart", residents.get(1).getFirstName());
+        assertTrue(residents.get(1).getMedications().isEmpty());
+        verify(fireStationRepository, never()).findByAddress(anyString());
+        verify(personRepository, never()).findByAddress(anyString());
     }
 
     /**
@@ -228,7 +269,7 @@ class AlertsServiceTest {
     @Test
     void testGetFireDetailsByAddress_NotFound() {
         String address = "123 Unknown Street";
-        when(personRepository.findByAddress(address)).thenReturn(Collections.emptyList());
+        when(personRepository.findFireDetailRowsByAddressIn(List.of(address))).thenReturn(Collections.emptyList());
 
         Map<String, Object> result = alertsService.getFireDetailsByAddress(address);
 
@@ -237,61 +278,117 @@ class AlertsServiceTest {
     }
 
     /**
-     * Test getFloodDetailsByStations with existing station numbers.
+     * Test getFireDetailsByAddresses answers every address from one query, keyed by the requested address.
+     */
+    @Test
+    void testGetFireDetailsByAddresses() {
+        String evergreen = "742 Evergreen Terrace";
+        String schoolLane = "300 School Lane";
+        String unknown = "123 Unknown Street";
+        List<String> addresses = List.of(evergreen, schoolLane, unknown);
+        when(personRepository.findFireDetailRowsByAddressIn(Set.copyOf(addresses))).thenReturn(List.of(
+                new Object[]{1, 1L, "Homer", "Simpson", evergreen, "Springfield",
+                        "555-1234", "homer.simpson@example.com", 42, "aspirin:100mg", null},
+                new Object[]{2, 3L, "Nelson", "Muntz", schoolLane, "Springfield",
+                        "555-8903", "nelson.muntz@example.com", 14, null, null},
+                new Object[]{2, 3L, "Nelson", "Muntz", schoolLane, "Springfield",
+                        "555-8903", "nelson.muntz@example.com", 14, null, "peanut"}));
+
+        Map<String, Map<String, Object>> result = alertsService.getFireDetailsByAddresses(addresses);
+
+        assertEquals(addresses, List.copyOf(result.keySet()));
+        assertEquals(1, result.get(evergreen).get("stationNumber"));
+        assertEquals(2, result.get(schoolLane).get("stationNumber"));
+        List<Person> schoolLaneResidents = (List<Person>) result.get(schoolLane).get("residents");
+        assertEquals(List.of("peanut"), schoolLaneResidents.get(0).getAllergies());
+        assertTrue(result.get(unknown).isEmpty());
+        verify(personRepository, times(1)).findFireDetailRowsByAddressIn(anyCollection());
+    }
+
+    /**
+     * Test getPeopleByFireStations assigns the households of one person query to each requested station.
      */
     @Test
-    void testGetFloodDetailsByStations_Found() {
-        List<Integer> stationNumbers = List.of(1, 2);
-        String address1 = "742 Evergreen Terrace";
-        String address2 = "300 School Lane";
-        FireStation fs1 = new FireStation();
-        fs1.setAddress(address1);
-        fs1.setStationNumber(1);
-        FireStation fs2 = new FireStation();
-        fs2.setAddress(address2);
-        fs2.setStationNumber(2);
-
-        when(fireStationRepository.findByStationNumberIn(stationNumbers)).thenReturn(List.of(fs1, fs2));
-
-        Person person1 = new Person("Homer", "Simpson", address1, "Springfield",
+    void testGetPeopleByFireStations() {
+        Household evergreen = new Household("742 Evergreen Terrace");
+        evergreen.setId(1L);
+        Person homer = new Person("Homer", "Simpson", evergreen.getAddress(), "Springfield",
                 "555-1234", "homer.simpson@example.com", 42,
                 List.of("aspirin:100mg"), List.of("none"));
-        Person person2 = new Person("Bart", "Simpson", address1, "Springfield",
-                "555-1236", "bart.simpson@example.com", 12,
-                Collections.emptyList(), Collections.emptyList());
-        Person person3 = new Person("Nelson", "Muntz", address2, "Springfield",
-                "555-8903", "nelson.muntz@example.com", 14,
-                Collections.emptyList(), List.of("peanut"));
-
-        when(personRepository.findByAddressIn(List.of(address1, address2)))
-                .thenReturn(List.of(person1, person2, person3));
-
-        Map<String, List<Person>> expectedHouseholds = new HashMap<>();
-        expectedHouseholds.put(address1, List.of(person1, person2));
-        expectedHouseholds.put(address2, List.of(person3));
-
-        Map<String, List<Person>> result = alertsService.getFloodDetailsByStations(stationNumbers);
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.containsKey(address1));
-        assertTrue(result.containsKey(address2));
-        assertEquals(2, result.get(address1).size());
-        assertEquals(1, result.get(address2).size());
+        homer.setHousehold(evergreen);
+        List<Integer> stationNumbers = List.of(1, 2, 99);
+        when(personRepository.findByStationNumberIn(Set.copyOf(stationNumbers))).thenReturn(List.of(homer));
+        when(fireStationRepository.findCoverageByStationNumberIn(Set.copyOf(stationNumbers)))
+                .thenReturn(List.of(new StationCoverage(1, 1L), new StationCoverage(2, 1L)));
+
+        Map<Integer, List<Person>> result = alertsService.getPeopleByFireStations(stationNumbers);
+
+        assertEquals(stationNumbers, List.copyOf(result.keySet()));
+        assertEquals(List.of(homer), result.get(1));
+        assertEquals(List.of(homer), result.get(2));
+        assertTrue(result.get(99).isEmpty());
     }
 
     /**
-     * Test getFloodDetailsByStations with non-existing station numbers.
+     * Test that streamFloodHouseholdsByStations queries the household ids in parallel station chunks and
+     * passes each household once, in household order.
      */
     @Test
-    void testGetFloodDetailsByStations_NotFound() {
-        List<Integer> stationNumbers = List.of(99);
-        when(fireStationRepository.findByStationNumberIn(stationNumbers)).thenReturn(Collections.emptyList());
-
-        Map<String, List<Person>> result = alertsService.getFloodDetailsByStations(stationNumbers);
+    void testStreamFloodHouseholdsByStations_ParallelChunks() {
+        Household evergreen = new Household("742 Evergreen Terrace");
+        evergreen.setId(1L);
+        Household schoolLane = new Household("300 School Lane");
+        schoolLane.setId(2L);
+        Person homer = new Person("Homer", "Simpson", evergreen.getAddress(), "Springfield",
+                "555-1234", "homer.simpson@example.com", 42, List.of(), List.of());
+        homer.setHousehold(evergreen);
+        Person nelson = new Person("Nelson", "Muntz", schoolLane.getAddress(), "Springfield",
+                "555-8903", "nelson.muntz@example.com", 14, List.of(), List.of());
+        nelson.setHousehold(schoolLane);
+        when(fireStationRepository.findHouseholdIdPageByStationNumberIn(eq(List.of(1)), eq(0L), any()))
+                .thenReturn(List.of(2L));
+        when(fireStationRepository.findHouseholdIdPageByStationNumberIn(eq(List.of(2)), eq(0L), any()))
+                .thenReturn(List.of(1L, 2L));
+        when(fireStationRepository.findHouseholdIdPageByStationNumberIn(eq(List.of(3)), eq(0L), any()))
+                .thenReturn(List.of(1L));
+        when(personRepository.findByHouseholdIdIn(List.of(1L, 2L))).thenReturn(List.of(homer, nelson));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(alertsService, "stationsPerQuery", 1);
+        ReflectionTestUtils.setField(alertsService, "floodExecutor", executor);
+
+        try {
+            Map<String, List<Person>> result = new LinkedHashMap<>();
+            alertsService.streamFloodHouseholdsByStations(List.of(1, 2, 3, 2), result::put);
+
+            assertEquals(List.of(evergreen.getAddress(), schoolLane.getAddress()), List.copyOf(result.keySet()));
+            assertEquals(List.of(homer), result.get(evergreen.getAddress()));
+            assertEquals(List.of(nelson), result.get(schoolLane.getAddress()));
+            verify(fireStationRepository, times(3)).findHouseholdIdPageByStationNumberIn(anyCollection(), anyLong(), any());
+            verify(personRepository, times(1)).findByHouseholdIdIn(anyCollection());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
+    /**
+     * Test streamFloodHouseholdsByStations with non-existing station numbers.
+     */
+    @Test
+    void testStreamFloodHouseholdsByStations_NotFound() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(alertsService, "floodExecutor", executor);
+        when(fireStationRepository.findHouseholdIdPageByStationNumberIn(anyCollection(), anyLong(), any()))
+                .thenReturn(Collections.emptyList());
+
+        try {
+            Map<String, List<Person>> result = new LinkedHashMap<>();
+            alertsService.streamFloodHouseholdsByStations(List.of(99), result::put);
+
+            assertTrue(result.isEmpty());
+            verify(personRepository, never()).findByHouseholdIdIn(anyCollection());
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
@@ -0,0 +1,125 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.loader.DataReloader;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.PersonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reloads a modified copy of data.json, in chunks smaller than the data set; the context is discarded afterwards.
+ */
+@SpringBootTest(properties = "alerts.writes.chunk-size=5")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DataReloaderTest {
+
+    @Autowired
+    private DataReloader dataReloader;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Test that only the differences are applied, and that reloading the same file changes nothing.
+     */
+    @Test
+    void testReload_AppliesOnlyDifferences(@TempDir Path directory) throws Exception {
+        ObjectNode data = readData();
+        ArrayNode persons = (ArrayNode) data.get("persons");
+        ((ObjectNode) persons.get(0)).put("phone", "555-9999");
+        persons.remove(persons.size() - 1);
+        persons.addObject()
+                .put("firstName", "Selma").put("lastName", "Bouvier")
+                .put("address", "1 Lonely Lane").put("city", "Springfield")
+                .put("phone", "555-0002").put("email", "selma@example.com").put("age", 45);
+        ArrayNode fireStations = (ArrayNode) data.get("firestations");
+        fireStations.remove(0);
+        fireStations.addObject().put("address", "1 Lonely Lane").put("station", 6);
+        Path file = directory.resolve("data.json");
+        mapper.writeValue(file.toFile(), data);
+
+        assertEquals(new DataReloader.Diff(1, 1, 1, 1, 1), dataReloader.reload(file));
+        assertEquals("555-9999", personRepository.findByFirstNameAndLastName("Homer", "Simpson").get(0).getPhone());
+        assertEquals(1, personRepository.findByFirstNameAndLastName("Selma", "Bouvier").size());
+
+        assertEquals(new DataReloader.Diff(0, 0, 0, 0, 0), dataReloader.reload(file));
+    }
+
+    /**
+     * Test that a reader running during a reload sees either the previous or the reloaded data, never a mix,
+     * although the reload spans several chunks.
+     */
+    @Test
+    void testReload_ReadersNeverSeeAPartialReload(@TempDir Path directory) throws Exception {
+        String newPhone = "555-0000";
+        ObjectNode data = readData();
+        ArrayNode persons = (ArrayNode) data.get("persons");
+        persons.forEach(person -> ((ObjectNode) person).put("phone", newPhone));
+        Path file = directory.resolve("data.json");
+        mapper.writeValue(file.toFile(), data);
+
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> reader = executor.submit(() -> {
+            do {
+                List<Person> current = personRepository.findAll();
+                long reloaded = current.stream().filter(person -> newPhone.equals(person.getPhone())).count();
+                assertTrue(reloaded == 0 || reloaded == current.size(),
+                        reloaded + " of " + current.size() + " persons reloaded");
+            } while (reloading.get());
+        });
+        try {
+            dataReloader.reload(file);
+        } finally {
+            reloading.set(false);
+        }
+        reader.get();
+        executor.shutdown();
+
+        assertEquals(persons.size(), personRepository.findAll().stream()
+                .filter(person -> newPhone.equals(person.getPhone())).count());
+
+        // Back to the original data for the other tests
+        Path original = directory.resolve("original.json");
+        mapper.writeValue(original.toFile(), readData());
+        dataReloader.reload(original);
+    }
+
+    /**
+     * Test that a file without data is refused rather than applied as a deletion of everything.
+     */
+    @Test
+    void testReload_EmptyFileRefused(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("data.json"), "{}");
+
+        assertThrows(IOException.class, () -> dataReloader.reload(file));
+        assertFalse(personRepository.findAll().isEmpty());
+    }
+
+    private ObjectNode readData() throws IOException {
+        try (InputStream inputStream = new ClassPathResource("data.json").getInputStream()) {
+            return (ObjectNode) mapper.readTree(inputStream);
+        }
+    }
+}
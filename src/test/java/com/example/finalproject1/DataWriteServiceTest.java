@@ -0,0 +1,126 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.dto.BulkWriteResult;
+import com.example.finalproject1.dto.FireStationMapping;
+import com.example.finalproject1.exception.InvalidRequestException;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.HouseholdRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import com.example.finalproject1.service.AlertsService;
+import com.example.finalproject1.service.DataWriteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes against the loaded data set; the context is discarded afterwards.
+ */
+@SpringBootTest(properties = "alerts.writes.chunk-size=2")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DataWriteServiceTest {
+
+    @Autowired
+    private DataWriteService dataWriteService;
+
+    @Autowired
+    private AlertsService alertsService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private HouseholdRepository householdRepository;
+
+    /**
+     * Test that a bulk upload updates existing persons, inserts new ones with their household,
+     * and that cached results see the change.
+     */
+    @Test
+    void testBulkUpsertPersons() throws Exception {
+        assertFalse(names(alertsService.getPeopleByFireStation(1)).contains("Moe"));
+
+        BulkWriteResult result = dataWriteService.bulkUpsertPersons(ndjson("""
+                {"firstName":"Moe","lastName":"Szyslak","address":"742 Evergreen Terrace","city":"Springfield","phone":"555-0001","email":"moe@example.com","age":50,"medications":[],"allergies":[]}
+                {"firstName":"Selma","lastName":"Bouvier","address":"1 Lonely Lane","city":"Springfield","phone":"555-0002","email":"selma@example.com","age":45,"medications":[],"allergies":["shellfish"]}
+                {"firstName":"Selma","lastName":"Bouvier","address":"1 Lonely Lane","city":"Springfield","phone":"555-0003","email":"selma@example.com","age":45,"medications":[],"allergies":["shellfish"]}
+                """));
+
+        assertEquals(3, result.rows());
+        assertEquals(1, result.inserted());
+        assertEquals(2, result.existing());
+        assertEquals(2, result.chunks());
+        assertTrue(names(alertsService.getPeopleByFireStation(1)).contains("Moe"));
+        List<Person> selma = personRepository.findByFirstNameAndLastName("Selma", "Bouvier");
+        assertEquals(1, selma.size());
+        assertEquals("555-0003", selma.get(0).getPhone());
+        assertTrue(householdRepository.findByAddress("1 Lonely Lane").isPresent());
+    }
+
+    /**
+     * Test that persons are matched by their exact first and last name, not by either name alone.
+     */
+    @Test
+    void testUpsertPersons_MatchesExactNames() {
+        String homerPhone = personRepository.findByFirstNameAndLastName("Homer", "Simpson").get(0).getPhone();
+
+        int inserted = dataWriteService.upsertPersons(List.of(
+                new Person("Ned", "Simpson", "742 Evergreen Terrace", "Springfield", "555-0004", "", 60,
+                        List.of(), List.of()),
+                new Person("Homer", "Flanders", "740 Evergreen Terrace", "Springfield", "555-0005", "", 40,
+                        List.of(), List.of())));
+
+        assertEquals(2, inserted);
+        assertEquals(homerPhone, personRepository.findByFirstNameAndLastName("Homer", "Simpson").get(0).getPhone());
+        assertEquals(1, personRepository.findByFirstNameAndLastName("Ned", "Flanders").size());
+        assertEquals("555-0004", personRepository.findByFirstNameAndLastName("Ned", "Simpson").get(0).getPhone());
+    }
+
+    /**
+     * Test that an invalid record is rejected.
+     */
+    @Test
+    void testBulkUpsertPersons_MissingName() {
+        assertThrows(InvalidRequestException.class,
+                () -> dataWriteService.bulkUpsertPersons(ndjson("{\"firstName\":\"Nobody\"}\n")));
+    }
+
+    /**
+     * Test that a malformed line is rejected as an invalid record is, naming its record number.
+     */
+    @Test
+    void testBulkUpsertFireStations_MalformedLine() {
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> dataWriteService.bulkUpsertFireStations(ndjson(
+                        "{\"address\":\"2400 Oak Road\",\"station\":6}\n{\"address\":\"1 Elm\",\n")));
+        assertTrue(e.getMessage().startsWith("Record 2: "), e.getMessage());
+    }
+
+    /**
+     * Test that fire station mappings are only inserted once and can be deleted.
+     */
+    @Test
+    void testUpsertAndDeleteFireStation() {
+        FireStationMapping mapping = new FireStationMapping("2400 Oak Road", 6);
+
+        assertTrue(dataWriteService.upsertFireStation(mapping));
+        assertFalse(dataWriteService.upsertFireStation(mapping));
+        assertTrue(dataWriteService.deleteFireStation("2400 Oak Road", 6));
+        assertFalse(dataWriteService.deleteFireStation("2400 Oak Road", null));
+    }
+
+    private static InputStream ndjson(String lines) {
+        return new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> names(List<Person> persons) {
+        return persons.stream().map(Person::getFirstName).toList();
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.dto.KeysetPage;
+import com.example.finalproject1.dto.ResidentSummary;
+import com.example.finalproject1.dto.StationHeadcount;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Household;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.memory.InMemoryFireStationRepository;
+import com.example.finalproject1.repository.memory.InMemoryHouseholdRepository;
+import com.example.finalproject1.repository.memory.InMemoryPersonRepository;
+import com.example.finalproject1.service.AlertsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The scenarios of AlertsServiceTest, answered by the in-memory repositories instead of mocked JPA queries.
+ */
+class InMemoryAlertsServiceTest {
+
+    private static final String EVERGREEN = "742 Evergreen Terrace";
+    private static final String SCHOOL_LANE = "300 School Lane";
+
+    private InMemoryPersonRepository personRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private AlertsService alertsService;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryHouseholdRepository householdRepository = new InMemoryHouseholdRepository();
+        InMemoryFireStationRepository fireStationRepository = new InMemoryFireStationRepository();
+        personRepository = new InMemoryPersonRepository();
+        ReflectionTestUtils.setField(personRepository, "fireStationRepository", fireStationRepository);
+        alertsService = new AlertsService();
+        ReflectionTestUtils.setField(alertsService, "personRepository", personRepository);
+        ReflectionTestUtils.setField(alertsService, "fireStationRepository", fireStationRepository);
+        transactionManager = mock(PlatformTransactionManager.class);
+        ReflectionTestUtils.setField(alertsService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(alertsService, "jpaRepositories", false);
+        ReflectionTestUtils.setField(alertsService, "stationsPerQuery", 4);
+        ReflectionTestUtils.setField(alertsService, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(alertsService, "floodParallelism", 2);
+        ReflectionTestUtils.invokeMethod(alertsService, "start");
+
+        Household evergreen = householdRepository.save(new Household(EVERGREEN));
+        Household schoolLane = householdRepository.save(new Household(SCHOOL_LANE));
+        fireStationRepository.saveAll(List.of(station(evergreen, 1), station(schoolLane, 2), station(evergreen, 2)));
+        personRepository.saveAll(List.of(
+                person("Homer", 42, evergreen, "homer.simpson@example.com",
+                        List.of("aspirin:100mg", "donuts:12"), List.of("none")),
+                person("Marge", 39, evergreen, "marge.simpson@example.com", List.of(), List.of()),
+                person("Bart", 12, evergreen, "", List.of(), List.of()),
+                person("Nelson", 14, schoolLane, "nelson.muntz@example.com", List.of(), List.of("peanut"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(alertsService, "stop");
+    }
+
+    /**
+     * Test getPeopleByFireStation with existing and non-existing station numbers.
+     */
+    @Test
+    void testGetPeopleByFireStation() {
+        assertEquals(List.of("Homer", "Marge", "Bart"), firstNames(alertsService.getPeopleByFireStation(1)));
+        assertEquals(List.of("Homer", "Marge", "Bart", "Nelson"), firstNames(alertsService.getPeopleByFireStation(2)));
+        assertTrue(alertsService.getPeopleByFireStation(99).isEmpty());
+    }
+
+    /**
+     * Test that reads on the in-memory repositories open no transaction.
+     */
+    @Test
+    void testReads_NoTransaction() {
+        alertsService.getPeopleByFireStation(1);
+        alertsService.getFireDetailsByAddress(EVERGREEN);
+        alertsService.getCommunityEmails("Springfield");
+        alertsService.streamFloodHouseholdsByStations(List.of(1, 2), (address, members) -> { });
+
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    /**
+     * Test getHeadcountByFireStation counts adults and children.
+     */
+    @Test
+    void testGetHeadcountByFireStation() {
+        assertEquals(new StationHeadcount(2L, 1L), alertsService.getHeadcountByFireStation(1));
+        assertEquals(new StationHeadcount(0L, 0L), alertsService.getHeadcountByFireStation(99));
+    }
+
+    /**
+     * Test getCommunityEmails skips empty emails and keeps id order.
+     */
+    @Test
+    void testGetCommunityEmails() {
+        assertEquals(List.of("homer.simpson@example.com", "marge.simpson@example.com", "nelson.muntz@example.com"),
+                alertsService.getCommunityEmails("Springfield"));
+        assertTrue(alertsService.getCommunityEmails("Nowhere").isEmpty());
+    }
+
+    /**
+     * Test that community email pages follow the cursor to the last page.
+     */
+    @Test
+    void testGetCommunityEmailsPage() {
+        KeysetPage<String> first = alertsService.getCommunityEmailsPage("Springfield", null, 2);
+        KeysetPage<String> last = alertsService.getCommunityEmailsPage("Springfield", first.next(), 2);
+
+        assertEquals(List.of("homer.simpson@example.com", "marge.simpson@example.com"), first.items());
+        assertEquals(List.of("nelson.muntz@example.com"), last.items());
+        assertNull(last.next());
+    }
+
+    /**
+     * Test getChildrenByAddress with existing and non-existing addresses.
+     */
+    @Test
+    void testGetChildrenByAddress() {
+        Map<String, Object> result = alertsService.getChildrenByAddress(EVERGREEN);
+
+        assertEquals(List.of(new ResidentSummary("Bart", "Simpson", 12)), result.get("children"));
+        assertEquals(2, ((List<?>) result.get("otherResidents")).size());
+        assertTrue(alertsService.getChildrenByAddress("123 Unknown Street").isEmpty());
+    }
+
+    /**
+     * Test getPhoneNumbersByFireStation with existing and non-existing station numbers.
+     */
+    @Test
+    void testGetPhoneNumbersByFireStation() {
+        assertEquals(List.of("555-Homer", "555-Marge", "555-Bart"), alertsService.getPhoneNumbersByFireStation(1));
+        assertTrue(alertsService.getPhoneNumbersByFireStation(99).isEmpty());
+    }
+
+    /**
+     * Test getFireDetailsByAddress reports the first station of the address and folds medical data per person.
+     */
+    @Test
+    void testGetFireDetailsByAddress() {
+        Map<String, Object> result = alertsService.getFireDetailsByAddress(EVERGREEN);
+
+        assertEquals(1, result.get("stationNumber"));
+        List<Person> residents = (List<Person>) result.get("residents");
+        assertEquals(List.of("Homer", "Marge", "Bart"), firstNames(residents));
+        assertEquals(List.of("aspirin:100mg", "donuts:12"), residents.get(0).getMedications());
+        assertEquals(List.of("none"), residents.get(0).getAllergies());
+        assertTrue(residents.get(1).getMedications().isEmpty());
+        assertTrue(alertsService.getFireDetailsByAddress("123 Unknown Street").isEmpty());
+    }
+
+    /**
+     * Test getFireDetailsByAddresses keys every requested address.
+     */
+    @Test
+    void testGetFireDetailsByAddresses() {
+        List<String> addresses = List.of(EVERGREEN, SCHOOL_LANE, "123 Unknown Street");
+
+        Map<String, Map<String, Object>> result = alertsService.getFireDetailsByAddresses(addresses);
+
+        assertEquals(addresses, List.copyOf(result.keySet()));
+        assertEquals(2, result.get(SCHOOL_LANE).get("stationNumber"));
+        List<Person> schoolLaneResidents = (List<Person>) result.get(SCHOOL_LANE).get("residents");
+        assertEquals(List.of("peanut"), schoolLaneResidents.get(0).getAllergies());
+        assertTrue(result.get("123 Unknown Street").isEmpty());
+    }
+
+    /**
+     * Test getPeopleByFireStations assigns each household to every station covering it.
+     */
+    @Test
+    void testGetPeopleByFireStations() {
+        Map<Integer, List<Person>> result = alertsService.getPeopleByFireStations(List.of(1, 2, 99));
+
+        assertEquals(List.of("Homer", "Marge", "Bart"), firstNames(result.get(1)));
+        assertEquals(Set.of("Homer", "Marge", "Bart", "Nelson"), Set.copyOf(firstNames(result.get(2))));
+        assertTrue(result.get(99).isEmpty());
+    }
+
+    /**
+     * Test streamFloodHouseholdsByStations passes each household once, in household order.
+     */
+    @Test
+    void testStreamFloodHouseholdsByStations() {
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        alertsService.streamFloodHouseholdsByStations(List.of(2, 1, 2), households::put);
+
+        assertEquals(List.of(EVERGREEN, SCHOOL_LANE), List.copyOf(households.keySet()));
+        assertEquals(List.of("Homer", "Marge", "Bart"), firstNames(households.get(EVERGREEN)));
+
+        List<Person> people = new ArrayList<>();
+        alertsService.streamPeopleByFireStation(99, people::add);
+        assertTrue(people.isEmpty());
+    }
+
+    /**
+     * Test getPersonInfo, before and after the person is updated and deleted.
+     */
+    @Test
+    void testGetPersonInfo_FollowsWrites() {
+        Person homer = alertsService.getPersonInfo("Homer", "Simpson").get(0);
+        assertTrue(alertsService.getPersonInfo("John", "Doe").isEmpty());
+
+        homer.setCity("Shelbyville");
+        personRepository.save(homer);
+        assertFalse(alertsService.getCommunityEmails("Springfield").contains("homer.simpson@example.com"));
+        assertEquals(List.of("homer.simpson@example.com"), alertsService.getCommunityEmails("Shelbyville"));
+
+        personRepository.delete(homer);
+        assertTrue(alertsService.getPersonInfo("Homer", "Simpson").isEmpty());
+        assertEquals(List.of("Marge", "Bart"), firstNames(alertsService.getPeopleByFireStation(1)));
+    }
+
+    private static FireStation station(Household household, int stationNumber) {
+        FireStation fireStation = new FireStation();
+        fireStation.setAddress(household.getAddress());
+        fireStation.setStationNumber(stationNumber);
+        fireStation.setHousehold(household);
+        return fireStation;
+    }
+
+    private static Person person(String firstName, int age, Household household, String email,
+                                 List<String> medications, List<String> allergies) {
+        String lastName = firstName.equals("Nelson") ? "Muntz" : "Simpson";
+        Person person = new Person(firstName, lastName, household.getAddress(), "Springfield", "555-" + firstName,
+                email, age, medications, allergies);
+        person.setHousehold(household);
+        return person;
+    }
+
+    private static List<String> firstNames(List<Person> people) {
+        return people.stream().map(Person::getFirstName).toList();
+    }
+}
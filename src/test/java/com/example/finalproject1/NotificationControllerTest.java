@@ -0,0 +1,76 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.controller.NotificationController;
+import com.example.finalproject1.notification.DispatchReport;
+import com.example.finalproject1.notification.NotificationChannel;
+import com.example.finalproject1.notification.NotificationDispatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(NotificationController.class)
+class NotificationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Test
+    void testNotifyCity_AcceptedThenReported() throws Exception {
+        CompletableFuture<DispatchReport> dispatch = new CompletableFuture<>();
+        when(notificationDispatcher.notifyCity("Springfield", "Boil water advisory")).thenReturn(dispatch);
+
+        String location = mockMvc.perform(post("/notifications/communityEmail")
+                        .param("city", "Springfield")
+                        .content("Boil water advisory"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(get(location))
+                .andExpect(status().isAccepted());
+
+        dispatch.complete(new DispatchReport(NotificationChannel.EMAIL, 2, 2, 0, 1, 0, 5, 400.0, 1.0, 1.0));
+
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.channel").value("EMAIL"))
+                .andExpect(jsonPath("$.delivered").value(2));
+    }
+
+    @Test
+    void testNotifyFireStation_TooManyPending() throws Exception {
+        when(notificationDispatcher.notifyFireStation(1, "Evacuate")).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/notifications/phoneAlert")
+                        .param("firestation", "1")
+                        .content("Evacuate"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testNotifyFireStation_BlankMessage() throws Exception {
+        mockMvc.perform(post("/notifications/phoneAlert")
+                        .param("firestation", "1")
+                        .content(" "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetDispatch_Unknown() throws Exception {
+        mockMvc.perform(get("/notifications/unknown"))
+                .andExpect(status().isNotFound());
+    }
+}
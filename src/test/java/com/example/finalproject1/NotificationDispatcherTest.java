@@ -0,0 +1,138 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.notification.DispatchReport;
+import com.example.finalproject1.notification.Notification;
+import com.example.finalproject1.notification.NotificationChannel;
+import com.example.finalproject1.notification.NotificationDispatcher;
+import com.example.finalproject1.notification.NotificationSender;
+import com.example.finalproject1.notification.StubNotificationSender;
+import com.example.finalproject1.service.AlertsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for NotificationDispatcher.
+ */
+class NotificationDispatcherTest {
+
+    @Mock
+    private AlertsService alertsService;
+
+    @InjectMocks
+    private NotificationDispatcher notificationDispatcher;
+
+    private StubNotificationSender stubSender;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stubSender = new StubNotificationSender();
+        ReflectionTestUtils.setField(notificationDispatcher, "queueCapacity", 4);
+        ReflectionTestUtils.setField(notificationDispatcher, "batchSize", 3);
+        ReflectionTestUtils.setField(notificationDispatcher, "workers", 2);
+        ReflectionTestUtils.setField(notificationDispatcher, "concurrentDispatches", 2);
+        ReflectionTestUtils.setField(notificationDispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(notificationDispatcher, "retryBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(notificationDispatcher, "smsRate", 0.0);
+        ReflectionTestUtils.setField(notificationDispatcher, "emailRate", 0.0);
+        ReflectionTestUtils.setField(notificationDispatcher, "senders", List.of(stubSender));
+        ReflectionTestUtils.invokeMethod(notificationDispatcher, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(notificationDispatcher, "stop");
+    }
+
+    /**
+     * Test that every recipient of every page is delivered, more recipients than the queue holds included.
+     */
+    @Test
+    void testNotifyCity_DeliversEveryPage() {
+        List<String> emails = IntStream.range(0, 1500)
+                .mapToObj(i -> String.format("resident%04d@example.com", i))
+                .toList();
+        when(alertsService.getDistinctCommunityEmailsPage(eq("Springfield"), anyString(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String after = invocation.getArgument(1);
+                    int limit = invocation.getArgument(2);
+                    return emails.stream().filter(email -> email.compareTo(after) > 0).limit(limit).toList();
+                });
+
+        DispatchReport report = notificationDispatcher.notifyCity("Springfield", "Boil water advisory").join();
+
+        assertEquals(NotificationChannel.EMAIL, report.channel());
+        assertEquals(1500, report.recipients());
+        assertEquals(1500, report.delivered());
+        assertEquals(0, report.failed());
+        assertEquals(1500, stubSender.sent(NotificationChannel.EMAIL));
+        assertTrue(report.batches() >= 500);
+        verify(alertsService).getDistinctCommunityEmailsPage("Springfield", "", 1000);
+        verify(alertsService).getDistinctCommunityEmailsPage("Springfield", "resident0999@example.com", 1000);
+    }
+
+    /**
+     * Test that blank recipients are skipped.
+     */
+    @Test
+    void testNotifyCity_SkipsBlankRecipients() {
+        when(alertsService.getDistinctCommunityEmailsPage(eq("Springfield"), eq(""), anyInt()))
+                .thenReturn(List.of("  ", "resident@example.com"));
+
+        DispatchReport report = notificationDispatcher.notifyCity("Springfield", "Boil water advisory").join();
+
+        assertEquals(1, report.recipients());
+        assertEquals(1, report.delivered());
+    }
+
+    /**
+     * Test that a failing batch is retried and a batch failing every attempt is reported as failed.
+     */
+    @Test
+    void testNotifyFireStation_RetriesThenGivesUp() {
+        AtomicInteger calls = new AtomicInteger();
+        NotificationSender flakySender = new NotificationSender() {
+            @Override
+            public boolean supports(NotificationChannel channel) {
+                return true;
+            }
+
+            @Override
+            public void send(List<Notification> batch) throws IOException {
+                if (batch.stream().anyMatch(n -> n.recipient().equals("555-0000"))
+                        || calls.incrementAndGet() == 1) {
+                    throw new IOException("provider unavailable");
+                }
+            }
+        };
+        ReflectionTestUtils.setField(notificationDispatcher, "senders", List.of(flakySender));
+        ReflectionTestUtils.setField(notificationDispatcher, "batchSize", 1);
+        when(alertsService.getDistinctPhoneNumbersPage(eq(1), eq(""), anyInt()))
+                .thenReturn(List.of("555-0000", "555-1234"));
+
+        DispatchReport report = notificationDispatcher.notifyFireStation(1, "Evacuate").join();
+
+        assertEquals(2, report.recipients());
+        assertEquals(1, report.delivered());
+        assertEquals(1, report.failed());
+        assertEquals(3, report.retries());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import com.example.finalproject1.repository.FireStationRepository;
+import com.example.finalproject1.repository.PersonRepository;
+import com.example.finalproject1.service.AlertsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards against N+1 loading of Person medications and allergies.
+ * Each scenario serializes the result inside one transaction, the way open-session-in-view
+ * does for a request, and counts the JDBC statements Hibernate prepared.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.cache.type=none",
+        "alerts.flood.stations-per-query=" + PersonFetchStatisticsTest.STATIONS_PER_QUERY
+})
+class PersonFetchStatisticsTest {
+
+    // Small enough for the five stations of a flood request to span several chunks
+    static final int STATIONS_PER_QUERY = 2;
+
+    @Autowired
+    private AlertsService alertsService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private FireStationRepository fireStationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Test that streaming /flood/stations reads a page of households in one household id statement per
+     * chunk of stations, then persons, medications and allergies, and passes every household once.
+     */
+    @Test
+    void testStreamFloodHouseholdsByStations_FixedStatementCountPerChunk() {
+        List<Integer> stations = List.of(1, 2, 3, 4, 5);
+        int chunks = (stations.size() + STATIONS_PER_QUERY - 1) / STATIONS_PER_QUERY;
+        Map<String, List<Person>> households = new LinkedHashMap<>();
+        long statements = countStatements(() -> {
+            alertsService.streamFloodHouseholdsByStations(stations, (address, members) ->
+                    assertNull(households.put(address, members), address));
+            return households;
+        });
+
+        assertEquals(chunks + 3, statements);
+        Set<String> covered = fireStationRepository.findByStationNumberIn(stations).stream()
+                .map(FireStation::getAddress)
+                .collect(Collectors.toSet());
+        Set<String> expected = personRepository.findAll().stream()
+                .map(Person::getAddress)
+                .filter(covered::contains)
+                .collect(Collectors.toSet());
+        assertEquals(expected, households.keySet());
+    }
+
+    /**
+     * Test that /fire loads the station, the residents and both collections in a single statement.
+     */
+    @Test
+    void testFireDetailsByAddress_SingleStatement() {
+        long statements = countStatements(() -> alertsService.getFireDetailsByAddress("742 Evergreen Terrace"));
+
+        assertEquals(1, statements);
+    }
+
+    /**
+     * Test that /personInfo loads the persons and both collections in three statements.
+     */
+    @Test
+    void testPersonInfo_FixedStatementCount() {
+        long statements = countStatements(() -> alertsService.getPersonInfo("Homer", "Simpson"));
+
+        assertEquals(3, statements);
+    }
+
+    private long countStatements(Callable<Object> call) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            try {
+                String json = objectMapper.writeValueAsString(call.call());
+                assertFalse(json.isEmpty());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return statistics.getPrepareStatementCount();
+        });
+    }
+}
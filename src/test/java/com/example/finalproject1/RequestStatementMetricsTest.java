@@ -0,0 +1,49 @@
+package com.example.finalproject1;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The streamed endpoints run their queries on the async and flood executor threads, and are recorded
+ * once the response completed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RequestStatementMetricsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testStreamedEndpoints_CountStatements() throws InterruptedException {
+        assertStatementsCounted("/firestation?stationNumber=1", "/firestation");
+        assertStatementsCounted("/flood/stations?stations=1,2", "/flood/stations");
+    }
+
+    private void assertStatementsCounted(String url, String uri) throws InterruptedException {
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        // The request is recorded when the async request completes, which may follow the response
+        DistributionSummary summary = null;
+        for (int i = 0; i < 50 && summary == null; i++) {
+            summary = meterRegistry.find("alerts.request.statements").tag("uri", uri).summary();
+            if (summary == null) {
+                Thread.sleep(100);
+            }
+        }
+        assertNotNull(summary, uri + " was not recorded");
+        assertEquals(1, summary.count());
+        assertTrue(summary.totalAmount() > 0, uri + " counted no statement");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.index.SnapshotFile;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SnapshotFile.
+ */
+class SnapshotFileTest {
+
+    private static final String EVERGREEN = "742 Evergreen Terrace";
+
+    /**
+     * Test that a snapshot reads back what was written, nulls included.
+     */
+    @Test
+    void testWriteAndRead(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("alerts.snapshot");
+        SnapshotFile.Fingerprint source = fingerprint("data");
+
+        SnapshotFile.write(file, source, List.of(station()), List.of(homer(), bart()));
+        SnapshotFile.Contents contents = SnapshotFile.read(file, source);
+
+        assertNotNull(contents);
+        assertEquals(1, contents.fireStations().size());
+        assertEquals(EVERGREEN, contents.fireStations().get(0).getAddress());
+        assertEquals(1, contents.fireStations().get(0).getStationNumber());
+        Person homer = contents.persons().get(0);
+        assertEquals(1L, homer.getId());
+        assertEquals("Homer", homer.getFirstName());
+        assertEquals(EVERGREEN, homer.getAddress());
+        assertEquals(42, homer.getAge());
+        assertEquals(List.of("aspirin:100mg"), homer.getMedications());
+        Person bart = contents.persons().get(1);
+        assertNull(bart.getEmail());
+        assertNull(bart.getAllergies());
+        assertEquals(List.of(), bart.getMedications());
+    }
+
+    /**
+     * Test that a snapshot of another data file, or a damaged one, is not read.
+     */
+    @Test
+    void testRead_StaleOrCorrupt(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("alerts.snapshot");
+        SnapshotFile.Fingerprint source = fingerprint("data");
+        SnapshotFile.write(file, source, List.of(station()), List.of(homer()));
+
+        assertNull(SnapshotFile.read(file, fingerprint("other data")));
+        assertNull(SnapshotFile.read(directory.resolve("missing.snapshot"), source));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertNull(SnapshotFile.read(file, source));
+    }
+
+    private static SnapshotFile.Fingerprint fingerprint(String content) throws Exception {
+        return SnapshotFile.Fingerprint.of(new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static FireStation station() {
+        FireStation fireStation = new FireStation();
+        fireStation.setId(1L);
+        fireStation.setAddress(EVERGREEN);
+        fireStation.setStationNumber(1);
+        return fireStation;
+    }
+
+    private static Person homer() {
+        Person homer = new Person("Homer", "Simpson", EVERGREEN, "Springfield", "555-1234",
+                "homer.simpson@example.com", 42, List.of("aspirin:100mg"), List.of("none"));
+        homer.setId(1L);
+        return homer;
+    }
+
+    private static Person bart() {
+        Person bart = new Person("Bart", "Simpson", EVERGREEN, "Springfield", "555-1236", null, 10, List.of(), null);
+        bart.setId(2L);
+        return bart;
+    }
+}
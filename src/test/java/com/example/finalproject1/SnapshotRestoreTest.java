@@ -0,0 +1,102 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.index.AlertIndexSnapshot;
+import com.example.finalproject1.index.SnapshotFile;
+import com.example.finalproject1.model.FireStation;
+import com.example.finalproject1.model.Person;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Starts from a snapshot of data.json holding a single household: the index answers the alert endpoints,
+ * while those needing the (empty) database answer 503. The context is discarded afterwards.
+ */
+@SpringBootTest(properties = {"alerts.index.enabled=true", "alerts.snapshot.enabled=true"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SnapshotRestoreTest {
+
+    private static final String EVERGREEN = "742 Evergreen Terrace";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AlertIndexSnapshot alertIndexSnapshot;
+
+    @DynamicPropertySource
+    static void snapshot(DynamicPropertyRegistry registry) throws IOException {
+        Path file = Files.createTempFile("alerts", ".snapshot");
+        file.toFile().deleteOnExit();
+        FireStation station = new FireStation();
+        station.setId(1L);
+        station.setAddress(EVERGREEN);
+        station.setStationNumber(1);
+        Person homer = new Person("Homer", "Simpson", EVERGREEN, "Springfield", "555-1234",
+                "homer.simpson@example.com", 42, List.of(), List.of());
+        homer.setId(1L);
+        SnapshotFile.write(file, SnapshotFile.Fingerprint.of(new ClassPathResource("data.json")),
+                List.of(station), List.of(homer));
+        registry.add("alerts.snapshot.path", file::toString);
+    }
+
+    /**
+     * Test that the alert endpoints are answered from the restored index.
+     */
+    @Test
+    void testRestored_IndexEndpointsServed() throws Exception {
+        assertTrue(alertIndexSnapshot.isRestored());
+        mockMvc.perform(get("/fire").param("address", EVERGREEN))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Homer")));
+    }
+
+    /**
+     * Test that the database reads and the writes answer 503 rather than empty results or colliding ids.
+     */
+    @Test
+    void testRestored_DatabaseEndpointsUnavailable() throws Exception {
+        mockMvc.perform(get("/personInfo").param("firstName", "Homer").param("lastName", "Simpson"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/communityEmail").param("city", "Springfield").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/test").param("limit", "10"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(put("/person")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Selma\",\"lastName\":\"Bouvier\",\"address\":\"1 Lonely Lane\"}"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(post("/notifications/communityEmail").param("city", "Springfield").content("Boil water"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    /**
+     * Test that the snapshot cannot be combined with hot reload.
+     */
+    @Test
+    void testReloadEnabled_RefusesToStart() {
+        AlertIndexSnapshot snapshot = new AlertIndexSnapshot();
+        ReflectionTestUtils.setField(snapshot, "reloadEnabled", true);
+
+        assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(snapshot, "start"));
+    }
+}
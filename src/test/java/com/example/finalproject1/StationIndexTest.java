@@ -0,0 +1,59 @@
+package com.example.finalproject1;
+
+import com.example.finalproject1.index.StationIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StationIndex.
+ */
+class StationIndexTest {
+
+    /**
+     * Test that each station resolves to its address ids in insertion order.
+     */
+    @Test
+    void testAddressIds() {
+        StationIndex index = new StationIndex.Builder()
+                .add(2, 0)
+                .add(1, 1)
+                .add(2, 2)
+                .add(3, 3)
+                .build();
+
+        assertEquals(3, index.size());
+        assertArrayEquals(new int[]{1}, index.addressIds(1));
+        assertArrayEquals(new int[]{0, 2}, index.addressIds(2));
+        assertArrayEquals(new int[]{3}, index.addressIds(3));
+    }
+
+    /**
+     * Test that an unknown station resolves to no address.
+     */
+    @Test
+    void testAddressIds_UnknownStation() {
+        StationIndex index = new StationIndex.Builder().add(1, 0).build();
+
+        assertEquals(0, index.addressIds(4).length);
+        assertEquals(0, new StationIndex.Builder().build().addressIds(1).length);
+    }
+
+    /**
+     * Test that many stations, colliding slots included, are all found.
+     */
+    @Test
+    void testAddressIds_ManyStations() {
+        StationIndex.Builder builder = new StationIndex.Builder();
+        for (int station = 0; station < 10_000; station++) {
+            builder.add(station * 1024, station);
+        }
+        StationIndex index = builder.build();
+
+        assertEquals(10_000, index.size());
+        for (int station = 0; station < 10_000; station++) {
+            assertArrayEquals(new int[]{station}, index.addressIds(station * 1024));
+        }
+        assertEquals(0, index.addressIds(1).length);
+    }
+}